@@ -3,9 +3,11 @@ package ru.practicum.shareit.booking.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
@@ -13,21 +15,25 @@ import ru.practicum.shareit.client.BaseClient;
 
 
 import javax.validation.ValidationException;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
     public static final LocalDateTime TIME = LocalDateTime.now();
 
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -45,25 +51,54 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved=" + approved, userId);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size, boolean includeTotal) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
-                "size", size
+                "size", size,
+                "includeTotal", includeTotal
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllBookingsForCurrentUser(long userId, BookingState state, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllBookingsForCurrentUser(long userId, BookingState state, Integer from, Integer size,
+                                                               boolean includeTotal) {
         Map<String, Object> parameters = Map.of(
                 "state", state,
                 "from", from,
-                "size", size
+                "size", size,
+                "includeTotal", includeTotal
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
     }
 
-    private void validated(BookItemRequestDto bookingDtoIn) {
+    public ResponseEntity<Object> getBookingsSlice(long userId, BookingState state, String after, Integer size) {
+        return get("/slice" + sliceQuery(after), userId, sliceParameters(state, after, size));
+    }
+
+    public ResponseEntity<Object> getAllBookingsForCurrentUserSlice(long userId, BookingState state, String after, Integer size) {
+        return get("/owner/slice" + sliceQuery(after), userId, sliceParameters(state, after, size));
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportBookings(long userId) throws IOException {
+        return stream("/export", userId);
+    }
+
+    private String sliceQuery(String after) {
+        return after == null ? "?state={state}&size={size}" : "?state={state}&after={after}&size={size}";
+    }
+
+    private Map<String, Object> sliceParameters(BookingState state, String after, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
+    }
+
+    static void validated(BookItemRequestDto bookingDtoIn) {
         if (bookingDtoIn.getStart() == null || bookingDtoIn.getEnd() == null || bookingDtoIn.getStart().isBefore(TIME) ||
                 bookingDtoIn.getStart().isEqual(bookingDtoIn.getEnd()) || bookingDtoIn.getEnd().isBefore(TIME) ||
                 bookingDtoIn.getEnd().isBefore(bookingDtoIn.getStart())) {
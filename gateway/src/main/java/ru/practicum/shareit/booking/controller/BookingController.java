@@ -3,10 +3,12 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exception.UnsupportedStatusExist;
@@ -14,12 +16,14 @@ import ru.practicum.shareit.exception.UnsupportedStatusExist;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
+@Profile("!reactive")
 public class BookingController {
 	private final BookingClient bookingClient;
 
@@ -27,11 +31,12 @@ public class BookingController {
 	public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
 											  @RequestParam(name = "state", defaultValue = "all") String stateParam,
 											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+											  @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
 		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getBookings(userId, state, from, size);
+		return bookingClient.getBookings(userId, state, from, size, includeTotal);
 	}
 
 	@PostMapping
@@ -41,6 +46,34 @@ public class BookingController {
 		return bookingClient.bookItem(userId, requestDto);
 	}
 
+	@GetMapping("/slice")
+	public ResponseEntity<Object> getBookingsSlice(@RequestHeader("X-Sharer-User-Id") long userId,
+												   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+												   @RequestParam(name = "after", required = false) String after,
+												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get booking slice with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+		return bookingClient.getBookingsSlice(userId, state, after, size);
+	}
+
+	@GetMapping("/owner/slice")
+	public ResponseEntity<Object> getAllBookingsForCurrentUserSlice(@RequestHeader("X-Sharer-User-Id") long userId,
+																	@RequestParam(name = "state", defaultValue = "all") String stateParam,
+																	@RequestParam(name = "after", required = false) String after,
+																	@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get owner booking slice with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+		return bookingClient.getAllBookingsForCurrentUserSlice(userId, state, after, size);
+	}
+
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportBookings(@RequestHeader("X-Sharer-User-Id") long userId) throws IOException {
+		log.info("Export all bookings, userId={}", userId);
+		return bookingClient.exportBookings(userId);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
 			@PathVariable Long bookingId) {
@@ -60,10 +93,11 @@ public class BookingController {
 	public ResponseEntity<Object> getAllBookingsForCurrentUser(@RequestHeader("X-Sharer-User-Id") long userId,
 															   @RequestParam(name = "state", defaultValue = "all") String stateParam,
 															   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-															   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+															   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+															   @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
 		BookingState state = BookingState.from(stateParam)
 				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
 		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-		return bookingClient.getAllBookingsForCurrentUser(userId, state, from, size);
+		return bookingClient.getAllBookingsForCurrentUser(userId, state, from, size, includeTotal);
 	}
 }
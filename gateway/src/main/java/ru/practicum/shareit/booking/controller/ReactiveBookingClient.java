@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveBookingClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> bookItem(long userId, BookItemRequestDto requestDto) {
+        BookingClient.validated(requestDto);
+        return post("", userId, requestDto);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingById(long userId, Long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> updateBooking(long bookingId, Boolean approved, long userId) {
+        return patch("/" + bookingId + "?approved=" + approved, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size, boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("?state={state}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllBookingsForCurrentUser(long userId, BookingState state, Integer from, Integer size,
+                                                                     boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "state", state,
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("/owner?state={state}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getBookingsSlice(long userId, BookingState state, String after, Integer size) {
+        return get("/slice" + sliceQuery(after), userId, sliceParameters(state, after, size));
+    }
+
+    public Mono<ResponseEntity<Object>> getAllBookingsForCurrentUserSlice(long userId, BookingState state, String after, Integer size) {
+        return get("/owner/slice" + sliceQuery(after), userId, sliceParameters(state, after, size));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookings(long userId) {
+        return stream("/export", userId);
+    }
+
+    private String sliceQuery(String after) {
+        return after == null ? "?state={state}&size={size}" : "?state={state}&after={after}&size={size}";
+    }
+
+    private Map<String, Object> sliceParameters(BookingState state, String after, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
+    }
+}
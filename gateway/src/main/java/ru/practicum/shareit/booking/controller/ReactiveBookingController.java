@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+import ru.practicum.shareit.exception.UnsupportedStatusExist;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@Controller
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@Profile("reactive")
+public class ReactiveBookingController {
+	private final ReactiveBookingClient bookingClient;
+
+	@GetMapping
+	public Mono<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+											  @RequestParam(name = "state", defaultValue = "all") String stateParam,
+											  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+											  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+											  @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+		return bookingClient.getBookings(userId, state, from, size, includeTotal);
+	}
+
+	@PostMapping
+	public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+			@RequestBody @Valid BookItemRequestDto requestDto) {
+		log.info("Creating booking {}, userId={}", requestDto, userId);
+		return bookingClient.bookItem(userId, requestDto);
+	}
+
+	@GetMapping("/slice")
+	public Mono<ResponseEntity<Object>> getBookingsSlice(@RequestHeader("X-Sharer-User-Id") long userId,
+												   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+												   @RequestParam(name = "after", required = false) String after,
+												   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get booking slice with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+		return bookingClient.getBookingsSlice(userId, state, after, size);
+	}
+
+	@GetMapping("/owner/slice")
+	public Mono<ResponseEntity<Object>> getAllBookingsForCurrentUserSlice(@RequestHeader("X-Sharer-User-Id") long userId,
+																	@RequestParam(name = "state", defaultValue = "all") String stateParam,
+																	@RequestParam(name = "after", required = false) String after,
+																	@Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get owner booking slice with state {}, userId={}, after={}, size={}", stateParam, userId, after, size);
+		return bookingClient.getAllBookingsForCurrentUserSlice(userId, state, after, size);
+	}
+
+	@GetMapping("/export")
+	public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookings(@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Export all bookings, userId={}", userId);
+		return bookingClient.exportBookings(userId);
+	}
+
+	@GetMapping("/{bookingId}")
+	public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+			@PathVariable Long bookingId) {
+		log.info("Get booking {}, userId={}", bookingId, userId);
+		return bookingClient.getBookingById(userId, bookingId);
+	}
+
+	@PatchMapping("/{bookingId}")
+	public Mono<ResponseEntity<Object>> updateBooking(@PathVariable long bookingId,
+												@RequestParam Boolean approved,
+												@RequestHeader("X-Sharer-User-Id") long userId) {
+		log.info("Patch approved {}, userId={}", approved, userId);
+		return bookingClient.updateBooking(bookingId, approved, userId);
+	}
+
+	@GetMapping("/owner")
+	public Mono<ResponseEntity<Object>> getAllBookingsForCurrentUser(@RequestHeader("X-Sharer-User-Id") long userId,
+															   @RequestParam(name = "state", defaultValue = "all") String stateParam,
+															   @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+															   @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+															   @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+		BookingState state = BookingState.from(stateParam)
+				.orElseThrow(() -> new UnsupportedStatusExist("Unknown state: " + stateParam));
+		log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+		return bookingClient.getAllBookingsForCurrentUser(userId, state, from, size, includeTotal);
+	}
+}
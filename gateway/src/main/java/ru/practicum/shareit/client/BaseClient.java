@@ -1,22 +1,49 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class BaseClient {
+    //заголовки соединения с сервером, а не ответа; длину тела шлюз передает как есть
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding");
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
     protected final RestTemplate rest;
+    @Nullable
+    private final GatewayResponseCache responseCache;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable GatewayResponseCache responseCache) {
         this.rest = rest;
+        this.responseCache = responseCache;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -31,6 +58,46 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    //GET через кэш шлюза: сохраненный ответ отдается, пока свеж, а затем после 304 на запрос с If-None-Match
+    protected ResponseEntity<Object> cachedGet(String path, @Nullable Long userId) {
+        if (responseCache == null) {
+            return get(path, userId, null);
+        }
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        String key = uri + "|" + userId;
+        CachedResponse cached = responseCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            responseCache.recordFresh();
+            return cached.toResponseEntity();
+        }
+
+        HttpHeaders headers = defaultHeaders(userId);
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.getEtag());
+        }
+        try (ClientHttpResponse response = execute(HttpMethod.GET, uri, new HttpEntity<>(headers))) {
+            HttpHeaders responseHeaders = passthroughHeaders(response);
+            long maxAgeNanos = maxAgeNanos(responseHeaders);
+            if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                responseCache.recordRevalidated();
+                CachedResponse revalidated = cached.revalidated(Math.max(maxAgeNanos, 0));
+                responseCache.put(key, revalidated);
+                return revalidated.toResponseEntity();
+            }
+
+            responseCache.recordMiss();
+            byte[] body = StreamUtils.copyToByteArray(response.getBody());
+            if (response.getRawStatusCode() == HttpStatus.OK.value() && responseHeaders.getETag() != null && maxAgeNanos >= 0) {
+                responseCache.put(key, new CachedResponse(responseHeaders, body, maxAgeNanos));
+            } else {
+                responseCache.evict(key);
+            }
+            return ResponseEntity.status(response.getRawStatusCode()).headers(responseHeaders).body(body);
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,20 +146,47 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    //тело ответа сервера не буферизуется, а переписывается клиенту по мере получения
+    protected ResponseEntity<StreamingResponseBody> stream(String path, long userId) throws IOException {
+        ClientHttpRequest request = rest.getRequestFactory()
+                .createRequest(rest.getUriTemplateHandler().expand(path), HttpMethod.GET);
+        request.getHeaders().addAll(defaultHeaders(userId));
+        ClientHttpResponse response = request.execute();
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            try (response) {
+                byte[] body = StreamUtils.copyToByteArray(response.getBody());
+                return ResponseEntity.status(response.getStatusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(outputStream -> outputStream.write(body));
+            }
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> {
+                    try (response) {
+                        StreamUtils.copy(response.getBody(), outputStream);
+                    }
+                });
+    }
+
+    //тело ответа сервера не разбирается: байты переписываются клиенту прямо из соединения с сервером
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        URI uri = parameters != null ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
 
-        ResponseEntity<Object> shareitServerResponse;
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(execute(method, uri, requestEntity));
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " + e.getMessage(), e);
         }
-        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    private ClientHttpResponse execute(HttpMethod method, URI uri, HttpEntity<?> requestEntity) throws IOException {
+        ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+        rest.httpEntityCallback(requestEntity).doWithRequest(request);
+        return request.execute();
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -105,17 +199,49 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static HttpHeaders passthroughHeaders(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+
+    //срок свежести из Cache-Control сервера: 0 - проверять каждый раз, -1 - не кэшировать (no-store)
+    private static long maxAgeNanos(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return 0;
         }
+        if (cacheControl.contains("no-store")) {
+            return -1;
+        }
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        return matcher.find() ? TimeUnit.SECONDS.toNanos(Long.parseLong(matcher.group(1))) : 0;
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> prepareGatewayResponse(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = passthroughHeaders(response);
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode()).headers(headers);
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (headers.getContentLength() == 0 || response.getRawStatusCode() == HttpStatus.NO_CONTENT.value()
+                || response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            return responseBuilder.build();
         }
 
-        return responseBuilder.build();
+        //вне запроса к шлюзу (вызов из кода) некому дочитать тело потом, поэтому оно копируется сразу
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            try (response) {
+                return responseBuilder.body(StreamUtils.copyToByteArray(response.getBody()));
+            }
+        }
+        //соединение вернется в пул, даже если тело так и не будет записано (304, ошибка записи)
+        attributes.registerDestructionCallback(BaseClient.class.getName() + "." + System.identityHashCode(response),
+                response::close, RequestAttributes.SCOPE_REQUEST);
+        return responseBuilder.body(new InputStreamResource(response.getBody()));
     }
 }
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+//ответ сервера в кэше шлюза; до freshUntil отдается без обращения к серверу, потом только после 304
+@Getter
+public class CachedResponse {
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final long freshUntilNanos;
+
+    public CachedResponse(HttpHeaders headers, byte[] body, long maxAgeNanos) {
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.freshUntilNanos = System.nanoTime() + maxAgeNanos;
+    }
+
+    public boolean isFresh() {
+        return System.nanoTime() - freshUntilNanos < 0;
+    }
+
+    public String getEtag() {
+        return headers.getETag();
+    }
+
+    public CachedResponse revalidated(long maxAgeNanos) {
+        return new CachedResponse(headers, body, maxAgeNanos);
+    }
+
+    public ResponseEntity<Object> toResponseEntity() {
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+//кэш ответов на GET к серверу, ключ - путь с параметрами и X-Sharer-User-Id
+//актуальность решает сервер: ETag для условных запросов и Cache-Control: max-age / no-store
+@Component
+@Profile("!reactive")
+public class GatewayResponseCache {
+    public static final String CACHE_NAME = "gatewayResponses";
+
+    private final Cache<String, CachedResponse> cache;
+    private final long maxEntrySize;
+    private final Counter fresh;
+    private final Counter revalidated;
+    private final Counter missed;
+    private final Counter upstreamSaved;
+    private final Counter recomputationSaved;
+
+    public GatewayResponseCache(MeterRegistry meterRegistry,
+                                @Value("${shareit-server.cache.max-size:64MB}") DataSize maxSize,
+                                @Value("${shareit-server.cache.max-entry-size:256KB}") DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize.toBytes();
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, CachedResponse>weigher((key, response) -> key.length() + response.getBody().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        //fresh - запрос к серверу не понадобился, revalidated - сервер ответил 304 без тела
+        fresh = requests(meterRegistry, "fresh");
+        revalidated = requests(meterRegistry, "revalidated");
+        missed = requests(meterRegistry, "miss");
+        upstreamSaved = Counter.builder("gateway.cache.upstream.saved")
+                .description("GET, на которые шлюз ответил без запроса к серверу")
+                .register(meterRegistry);
+        //сервер ShareIt не шлет max-age, поэтому основная экономия - 304: ETag берется из кэша сервера,
+        //а ответ не собирается, не сериализуется и не передается
+        recomputationSaved = Counter.builder("gateway.cache.recomputation.saved")
+                .description("GET, на которые сервер ответил 304 вместо сборки ответа")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.hit.ratio", this, GatewayResponseCache::hitRatio)
+                .description("Доля GET, отданных из кэша шлюза, в том числе после 304")
+                .register(meterRegistry);
+    }
+
+    @Nullable
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        if (response.getBody().length <= maxEntrySize) {
+            cache.put(key, response);
+        } else {
+            cache.invalidate(key);
+        }
+    }
+
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    public void recordFresh() {
+        fresh.increment();
+        upstreamSaved.increment();
+    }
+
+    public void recordRevalidated() {
+        revalidated.increment();
+        recomputationSaved.increment();
+    }
+
+    public void recordMiss() {
+        missed.increment();
+    }
+
+    private double hitRatio() {
+        double hits = fresh.count() + revalidated.count();
+        double total = hits + missed.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+
+//тело запроса буферизуется, как и в HttpComponentsClientHttpRequestFactory по умолчанию; ответ читается из соединения
+class JdkClientHttpRequest extends AbstractClientHttpRequest {
+    //эти заголовки HttpClient выставляет сам и не дает задать
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final HttpMethod method;
+    private final Duration readTimeout;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+    JdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.method = method;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public String getMethodValue() {
+        return method.name();
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .method(method.name(), body.size() == 0 ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+        headers.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        try {
+            HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            return new JdkClientHttpResponse(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Запрос к " + uri + " прерван");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+//клиенты к серверу поверх java.net.http.HttpClient для профиля virtual-threads: его пул соединений
+//обходится без synchronized, и ожидание соединения или ответа не закрепляет виртуальный поток за носителем
+public class JdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+
+    public JdkClientHttpRequestFactory(HttpClient httpClient, Duration readTimeout) {
+        this.httpClient = httpClient;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new JdkClientHttpRequest(httpClient, uri, httpMethod, readTimeout);
+    }
+}
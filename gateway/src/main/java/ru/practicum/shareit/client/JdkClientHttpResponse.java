@@ -0,0 +1,60 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+
+//закрытие дочитанного тела возвращает соединение в пул HttpClient, недочитанного - закрывает его
+class JdkClientHttpResponse implements ClientHttpResponse {
+    private final HttpResponse<InputStream> response;
+    private final HttpHeaders headers = new HttpHeaders();
+
+    JdkClientHttpResponse(HttpResponse<InputStream> response) {
+        this.response = response;
+        response.headers().map().forEach((name, values) -> {
+            //псевдозаголовки HTTP/2 вида :status
+            if (!name.startsWith(":")) {
+                headers.addAll(name, values);
+            }
+        });
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(response.statusCode());
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return response.statusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+        HttpStatus status = HttpStatus.resolve(response.statusCode());
+        return status != null ? status.getReasonPhrase() : "";
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return response.body();
+    }
+
+    @Override
+    public void close() {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            //соединение уже разорвано, возвращать в пул нечего
+        }
+    }
+}
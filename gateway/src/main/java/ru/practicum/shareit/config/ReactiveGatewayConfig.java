@@ -0,0 +1,40 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveGatewayConfig {
+
+    //в classpath есть и Tomcat для блокирующего режима, без явной фабрики реактивный сервер поднялся бы на нем
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    //общий пул соединений к серверу для всех реактивных клиентов, по умолчанию у Reactor Netty
+    //всего 2 * число ядер соединений и короткая очередь ожидания
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(
+            @Value("${shareit-server.reactive.max-connections:500}") int maxConnections,
+            @Value("${shareit-server.reactive.pending-acquire-max-count:10000}") int pendingAcquireMaxCount) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClientCustomizer shareItServerWebClientCustomizer(ConnectionProvider shareItServerConnectionProvider) {
+        return builder -> builder.clientConnector(new ReactorClientHttpConnector(HttpClient.create(shareItServerConnectionProvider)));
+    }
+}
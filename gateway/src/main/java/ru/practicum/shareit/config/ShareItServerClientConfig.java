@@ -0,0 +1,82 @@
+package ru.practicum.shareit.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import ru.practicum.shareit.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+//один пул соединений HttpClient на все блокирующие клиенты к серверу
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(ShareItServerClientProperties.class)
+public class ShareItServerClientConfig {
+    public static final String POOL_NAME = "shareit-server";
+    private static final String VIRTUAL_THREADS = "shareit.threads.virtual.enabled";
+
+    //на виртуальных потоках пул HttpClient 4 закрепляет поток за носителем: AbstractConnPool и releaseConnection
+    //берут монитор, поэтому там используется java.net.http.HttpClient с собственным пулом
+    //его размер и срок простоя соединения задаются jdk.httpclient.connectionPoolSize и jdk.httpclient.keepalive.timeout
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "true")
+    public JdkClientHttpRequestFactory shareItServerJdkRequestFactory(ShareItServerClientProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        return new JdkClientHttpRequestFactory(httpClient, properties.getReadTimeout());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager shareItServerConnectionManager(ShareItServerClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(Math.toIntExact(properties.getValidateAfterInactivity().toMillis()));
+        return connectionManager;
+    }
+
+    //фабрика закрывает HttpClient, а с ним и пул, при остановке контекста
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "false", matchIfMissing = true)
+    public HttpComponentsClientHttpRequestFactory shareItServerRequestFactory(
+            PoolingHttpClientConnectionManager shareItServerConnectionManager, ShareItServerClientProperties properties) {
+        long keepAliveMillis = properties.getKeepAlive().toMillis();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(shareItServerConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(Math.toIntExact(properties.getConnectTimeout().toMillis()))
+                        .setConnectionRequestTimeout(Math.toIntExact(properties.getConnectionRequestTimeout().toMillis()))
+                        .setSocketTimeout(Math.toIntExact(properties.getReadTimeout().toMillis()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAliveMillis) : keepAliveMillis;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getMaxIdleTime().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    //httpcomponents.httpclient.pool.* в /actuator/metrics
+    @Bean
+    @ConditionalOnProperty(name = VIRTUAL_THREADS, havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManagerMetricsBinder shareItServerPoolMetrics(
+            PoolingHttpClientConnectionManager shareItServerConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(shareItServerConnectionManager, POOL_NAME, Tags.empty());
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//общий пул соединений клиентов к серверу ShareIt: shareit-server.client.*
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.client")
+public class ShareItServerClientProperties {
+    private int maxTotal = 200;
+    //все клиенты ходят на один сервер, поэтому лимит маршрута по умолчанию равен общему
+    private int maxPerRoute = 200;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    //ожидание свободного соединения в пуле
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(30);
+    //срок жизни соединения, если сервер не прислал Keep-Alive
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//запросы Tomcat на виртуальных потоках: поток, ждущий ответа сервера в RestTemplate, не занимает поток ОС
+//нужен JDK 21 (mvn -Pvirtual-threads), в профиле reactive не используется
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadExecutor("shareit-gateway-"));
+    }
+}
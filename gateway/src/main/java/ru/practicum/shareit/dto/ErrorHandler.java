@@ -5,6 +5,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 import ru.practicum.shareit.exception.*;
 
 import javax.validation.ValidationException;
@@ -21,6 +22,14 @@ public class ErrorHandler {
         return new ErrorResponse("Ошибка валидации", e.getMessage());
     }
 
+    //сервер недоступен, не ответил за read-timeout или в пуле нет свободного соединения
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    public ErrorResponse handleServerUnavailable(final ResourceAccessException e) {
+        log.error("Сервер недоступен", e);
+        return new ErrorResponse("Сервер недоступен", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponseUnsupp handleUnsupported(final UnsupportedStatusExist e) {
@@ -3,8 +3,9 @@ package ru.practicum.shareit.item.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.controller.BookingClient;
@@ -15,6 +16,7 @@ import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
 import javax.validation.ValidationException;
 
 @Service
+@Profile("!reactive")
 public class CommentClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
@@ -22,11 +24,12 @@ public class CommentClient extends BaseClient {
     private BookingClient bookingClient;
 
     @Autowired
-    public CommentClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public CommentClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -36,7 +39,7 @@ public class CommentClient extends BaseClient {
         return post("/" + itemId + "/comment", userId, commentDtoIn);
     }
 
-    private void validated(CommentDtoIn commentDtoIn) {
+    static void validated(CommentDtoIn commentDtoIn) {
         if (commentDtoIn == null || commentDtoIn.getText().isEmpty()) {
             throw new ValidationException();
         }
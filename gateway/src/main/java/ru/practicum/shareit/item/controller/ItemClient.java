@@ -3,28 +3,36 @@ package ru.practicum.shareit.item.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
+    private static final int MAX_BATCH_SIZE = 10000;
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory requestFactory, GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache
         );
     }
 
@@ -33,32 +41,61 @@ public class ItemClient extends BaseClient {
         return post("", userId, itemDto);
     }
 
+    public ResponseEntity<Object> createItems(List<ItemDto> itemDtos, long userId) {
+        validationBatch(itemDtos);
+        itemDtos.forEach(itemDto -> validationItem(itemDto, userId));
+        return post("/batch", userId, itemDtos);
+    }
+
     public ResponseEntity<Object> updateItem(ItemDto itemDto, long id, long userId) {
         return patch("/" + id, userId, itemDto);
     }
 
     public ResponseEntity<Object> getItemById(long id, long userId) {
-        return get("/" + id, userId);
+        return cachedGet("/" + id, userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text, long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> searchItems(String text, long userId, Integer from, Integer size, boolean includeTotal) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
-                "size", size
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("/search?text={text}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size, boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
         );
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        return get("?from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllItems(long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getItemAvailability(long id, long userId, LocalDateTime from, LocalDateTime to) {
+        validationPeriod(from, to);
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "to", to
         );
-        return get("/", userId, parameters);
+        return get("/" + id + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    static void validationBatch(List<ItemDto> itemDtos) {
+        if (itemDtos.isEmpty() || itemDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Размер пакета должен быть от 1 до " + MAX_BATCH_SIZE);
+        }
+    }
+
+    static void validationPeriod(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало периода должно быть раньше конца");
+        }
     }
 
-    private void validationItem(ItemDto itemDto, Long userId) {
+    static void validationItem(ItemDto itemDto, Long userId) {
         if (userId == null || itemDto.getAvailable() == null || itemDto.getName() == null ||
                 itemDto.getDescription() == null || itemDto.getName().isEmpty() || itemDto.getDescription().isEmpty()) {
             throw new ValidationException("Ошибка валидации");
@@ -2,24 +2,37 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 @RequestMapping("/items")
+@Profile("!reactive")
 public class ItemController {
 
     private final ItemClient itemClient;
     private final CommentClient commentClient;
+    private final ItemImportClient itemImportClient;
 
     @PostMapping
     public ResponseEntity<Object> createItem(@Valid @RequestBody ItemDto itemDto,
@@ -28,6 +41,22 @@ public class ItemController {
         return itemClient.createItem(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createItems(@RequestBody List<@Valid ItemDto> itemDtos,
+                                              @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Create items count {}", itemDtos.size());
+        return itemClient.createItems(itemDtos, userId);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                             HttpServletRequest request) throws IOException {
+        log.info("Import items userId {}", userId);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8))
+                .body(itemImportClient.importItems(request.getInputStream(), userId));
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<Object> updateItem(@Valid @RequestBody ItemDto itemDto,
                                                     @PathVariable long id,
@@ -40,17 +69,19 @@ public class ItemController {
     public ResponseEntity<Object> searchItems(@RequestParam String text,
                                      @RequestHeader(value = "X-Sharer-User-Id") long userId,
                                      @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
-                                     @Positive @RequestParam(required = false, defaultValue = "10")  Integer size) {
+                                     @Positive @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                     @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
         log.info("Search items text {}", text);
-        return itemClient.searchItems(text, userId, from, size);
+        return itemClient.searchItems(text, userId, from, size, includeTotal);
     }
 
     @GetMapping
     public ResponseEntity<Object> getAllItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
                                      @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
-                                     @Positive @RequestParam(required = false, defaultValue = "10")  Integer size) {
+                                     @Positive @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                     @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
         log.info("Get All items userId {}", userId);
-        return itemClient.getAllItems(userId, from, size);
+        return itemClient.getAllItems(userId, from, size, includeTotal);
     }
 
     @GetMapping("/{id}")
@@ -60,6 +91,15 @@ public class ItemController {
         return itemClient.getItemById(id, userId);
     }
 
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Object> getItemAvailability(@PathVariable long id,
+                                                      @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", id, from, to);
+        return itemClient.getItemAvailability(id, userId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public ResponseEntity<Object> createComment(@PathVariable long itemId,
                                                 @RequestBody CommentDtoIn commentDtoIn,
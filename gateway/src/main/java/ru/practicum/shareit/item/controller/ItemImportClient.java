@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+
+import javax.validation.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+//импорт NDJSON: строки проверяются на шлюзе и пересылаются на сервер частями по CHUNK_SIZE,
+//так что ни шлюз, ни сервер не держат в памяти всю загрузку
+@Service
+@Profile("!reactive")
+public class ItemImportClient extends BaseClient {
+    public static final int CHUNK_SIZE = 500;
+    private static final String API_PREFIX = "/items";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader itemReader;
+    private final ObjectReader resultReader;
+    private final int maxLineLength;
+
+    @Autowired
+    public ItemImportClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                            ClientHttpRequestFactory requestFactory, ObjectMapper objectMapper,
+                            @Value("${shareit.import.max-line-length:65536}") int maxLineLength) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
+                        .requestFactory(() -> requestFactory)
+                        .build()
+        );
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.resultReader = objectMapper.readerFor(ItemImportResult.class);
+        this.maxLineLength = maxLineLength;
+    }
+
+    public StreamingResponseBody importItems(InputStream body, long userId) {
+        return outputStream -> {
+            NdjsonLineReader reader = new NdjsonLineReader(body, maxLineLength);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                StringBuilder forwarded = new StringBuilder();
+                List<ItemImportResult> rejected = new ArrayList<>();
+                int firstLine = 1;
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    //отклоненная строка заменяется пустой, чтобы сервер сохранил нумерацию строк
+                    String error = reader.isTooLong() ? "Строка длиннее " + maxLineLength + " символов"
+                            : line.isBlank() ? null : validate(line);
+                    if (error != null) {
+                        rejected.add(ItemImportResult.failed(lineNumber, error));
+                        forwarded.append('\n');
+                    } else {
+                        forwarded.append(line).append('\n');
+                    }
+                    if (lineNumber - firstLine + 1 == CHUNK_SIZE) {
+                        sendChunk(forwarded, rejected, firstLine, lineNumber, userId, generator);
+                        forwarded.setLength(0);
+                        rejected.clear();
+                        firstLine = lineNumber + 1;
+                    }
+                }
+                if (lineNumber >= firstLine) {
+                    sendChunk(forwarded, rejected, firstLine, lineNumber, userId, generator);
+                }
+            }
+        };
+    }
+
+    private String validate(String line) {
+        try {
+            ItemClient.validationItem(itemReader.readValue(line), 0L);
+        } catch (JsonProcessingException e) {
+            return "Некорректный JSON";
+        } catch (ValidationException e) {
+            return "Не заполнены name, description или available";
+        }
+        return null;
+    }
+
+    private void sendChunk(StringBuilder forwarded, List<ItemImportResult> rejected, int firstLine, int lastLine,
+                           long userId, JsonGenerator generator) throws IOException {
+        List<ItemImportResult> results = new ArrayList<>(rejected);
+        if (!forwarded.toString().isBlank()) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8));
+            headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            try {
+                byte[] response = rest.exchange("/import?firstLine={firstLine}", HttpMethod.POST,
+                        new HttpEntity<>(forwarded.toString().getBytes(StandardCharsets.UTF_8), headers),
+                        byte[].class, Map.of("firstLine", firstLine)).getBody();
+                if (response != null) {
+                    try (MappingIterator<ItemImportResult> iterator = resultReader.readValues(response)) {
+                        while (iterator.hasNext()) {
+                            results.add(iterator.next());
+                        }
+                    }
+                }
+            } catch (HttpStatusCodeException e) {
+                //ошибка сервера относится ко всем переданным строкам части
+                String error = "Сервер ответил " + e.getRawStatusCode();
+                String[] lines = forwarded.toString().split("\n", -1);
+                for (int i = 0; i <= lastLine - firstLine; i++) {
+                    if (!lines[i].isBlank()) {
+                        results.add(ItemImportResult.failed(firstLine + i, error));
+                    }
+                }
+            }
+        }
+        results.sort(Comparator.comparingInt(ItemImportResult::getLine));
+        for (ItemImportResult result : results) {
+            generator.writeObject(result);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+}
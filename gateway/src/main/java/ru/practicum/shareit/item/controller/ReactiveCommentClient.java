@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
+
+@Service
+@Profile("reactive")
+public class ReactiveCommentClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/items";
+
+    @Autowired
+    public ReactiveCommentClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> createComment(long itemId, CommentDtoIn commentDtoIn, long userId) {
+        CommentClient.validated(commentDtoIn);
+        return post("/" + itemId + "/comment", userId, commentDtoIn);
+    }
+}
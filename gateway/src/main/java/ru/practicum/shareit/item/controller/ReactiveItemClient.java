@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveItemClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/items";
+
+    @Autowired
+    public ReactiveItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> createItem(ItemDto itemDto, long userId) {
+        ItemClient.validationItem(itemDto, userId);
+        return post("", userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Object>> createItems(List<ItemDto> itemDtos, long userId) {
+        ItemClient.validationBatch(itemDtos);
+        itemDtos.forEach(itemDto -> ItemClient.validationItem(itemDto, userId));
+        return post("/batch", userId, itemDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(ItemDto itemDto, long id, long userId) {
+        return patch("/" + id, userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemById(long id, long userId) {
+        return get("/" + id, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> searchItems(String text, long userId, Integer from, Integer size, boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("/search?text={text}&from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllItems(long userId, Integer from, Integer size, boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("?from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getItemAvailability(long id, long userId, LocalDateTime from, LocalDateTime to) {
+        ItemClient.validationPeriod(from, to);
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + id + "/availability?from={from}&to={to}", userId, parameters);
+    }
+}
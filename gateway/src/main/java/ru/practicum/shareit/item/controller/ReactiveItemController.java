@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.List;
+
+
+//импорт NDJSON (POST /items/import) есть только в блокирующем режиме
+@RestController
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+@Profile("reactive")
+@RequestMapping("/items")
+public class ReactiveItemController {
+
+    private final ReactiveItemClient itemClient;
+    private final ReactiveCommentClient commentClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createItem(@Valid @RequestBody ItemDto itemDto,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Create item itemDto {}", itemDto);
+        return itemClient.createItem(itemDto, userId);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createItems(@RequestBody List<@Valid ItemDto> itemDtos,
+                                                    @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Create items count {}", itemDtos.size());
+        return itemClient.createItems(itemDtos, userId);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Object>> updateItem(@Valid @RequestBody ItemDto itemDto,
+                                                   @PathVariable long id,
+                                                   @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Update item itemDto {}", itemDto);
+        return itemClient.updateItem(itemDto, id, userId);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Object>> searchItems(@RequestParam String text,
+                                                    @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                    @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        log.info("Search items text {}", text);
+        return itemClient.searchItems(text, userId, from, size, includeTotal);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getAllItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                    @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                    @Positive @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                    @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        log.info("Get All items userId {}", userId);
+        return itemClient.getAllItems(userId, from, size, includeTotal);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getItemById(@PathVariable long id,
+                                                    @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Get item by id {}", id);
+        return itemClient.getItemById(id, userId);
+    }
+
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(@PathVariable long id,
+                                                            @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item {} from {} to {}", id, from, to);
+        return itemClient.getItemAvailability(id, userId, from, to);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<Object>> createComment(@PathVariable long itemId,
+                                                      @RequestBody CommentDtoIn commentDtoIn,
+                                                      @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        log.info("Create comment commentDtoIn {}", commentDtoIn);
+        return commentClient.createComment(itemId, commentDtoIn, userId);
+    }
+}
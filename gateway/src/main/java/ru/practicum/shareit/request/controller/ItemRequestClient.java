@@ -3,27 +3,32 @@ package ru.practicum.shareit.request.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
 
 import javax.validation.ValidationException;
 import java.util.Map;
 
 @Service
+@Profile("!reactive")
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory requestFactory, GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache
         );
     }
 
@@ -33,23 +38,24 @@ public class ItemRequestClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getRequestById(long requestId, long userId) {
-        return get("/" + requestId, userId);
+        return cachedGet("/" + requestId, userId);
     }
 
     public ResponseEntity<Object> getAllRequestsForOwner(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequestsForOtherUser(long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllRequestsForOtherUser(long userId, Integer from, Integer size, boolean includeTotal) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size
+                "size", size,
+                "includeTotal", includeTotal
         );
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return get("/all?from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
     }
 
 
-    private void validate(ItemRequestDtoIn itemRequestDtoIn) {
+    static void validate(ItemRequestDtoIn itemRequestDtoIn) {
         if (itemRequestDtoIn.getDescription() == null || itemRequestDtoIn.getDescription().isEmpty()) {
             throw new ValidationException("Ошибка в валидации запроса вещи");
         }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
@@ -13,6 +14,7 @@ import javax.validation.constraints.PositiveOrZero;
 @Slf4j
 @RequiredArgsConstructor
 @RequestMapping("/requests")
+@Profile("!reactive")
 public class ItemRequestController {
 
     private final ItemRequestClient itemRequestClient;
@@ -31,8 +33,9 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequestsForOtherUser(@RequestHeader(value = "X-Sharer-User-Id") long userId,
                                                              @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                             @Positive @RequestParam(required = false, defaultValue = "10") Integer size) {
-        return itemRequestClient.getAllRequestsForOtherUser(userId, from, size);
+                                                             @Positive @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                             @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        return itemRequestClient.getAllRequestsForOtherUser(userId, from, size, includeTotal);
     }
 
     @GetMapping("/{requestId}")
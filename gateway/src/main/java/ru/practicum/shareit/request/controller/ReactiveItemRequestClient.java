@@ -0,0 +1,46 @@
+package ru.practicum.shareit.request.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
+
+import java.util.Map;
+
+@Service
+@Profile("reactive")
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    @Autowired
+    public ReactiveItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> createRequest(ItemRequestDtoIn itemRequestDtoIn, long userId) {
+        ItemRequestClient.validate(itemRequestDtoIn);
+        return post("", userId, itemRequestDtoIn);
+    }
+
+    public Mono<ResponseEntity<Object>> getRequestById(long requestId, long userId) {
+        return get("/" + requestId, userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllRequestsForOwner(long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllRequestsForOtherUser(long userId, Integer from, Integer size, boolean includeTotal) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size,
+                "includeTotal", includeTotal
+        );
+        return get("/all?from={from}&size={size}&includeTotal={includeTotal}", userId, parameters);
+    }
+}
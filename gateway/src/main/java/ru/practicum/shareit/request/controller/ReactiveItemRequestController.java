@@ -0,0 +1,49 @@
+package ru.practicum.shareit.request.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
+
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+@Validated
+@Profile("reactive")
+@RequestMapping("/requests")
+public class ReactiveItemRequestController {
+
+    private final ReactiveItemRequestClient itemRequestClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createRequest(@RequestBody ItemRequestDtoIn itemRequestDtoIn,
+                                                      @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        return itemRequestClient.createRequest(itemRequestDtoIn, userId);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getAllRequestsForOwner(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        return itemRequestClient.getAllRequestsForOwner(userId);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Object>> getAllRequestsForOtherUser(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                   @PositiveOrZero @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                                   @Positive @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                                   @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        return itemRequestClient.getAllRequestsForOtherUser(userId, from, size, includeTotal);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<Object>> getRequestById(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                       @PathVariable long requestId) {
+        return itemRequestClient.getRequestById(requestId, userId);
+    }
+}
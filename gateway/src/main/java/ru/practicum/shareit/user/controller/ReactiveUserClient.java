@@ -0,0 +1,50 @@
+package ru.practicum.shareit.user.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/users";
+
+    @Autowired
+    public ReactiveUserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
+        super(builder.baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Object>> createUser(UserDto userDto) {
+        UserClient.validateUser(userDto);
+        return post("", userDto);
+    }
+
+    public Mono<ResponseEntity<Object>> createUsers(List<UserDto> userDtos) {
+        UserClient.validateUsers(userDtos);
+        return post("/batch", userDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateUser(long id, UserDto userDto) {
+        return patch("/" + id, userDto);
+    }
+
+    public Mono<ResponseEntity<Object>> getUserById(long id) {
+        return get("/" + id);
+    }
+
+    public Mono<ResponseEntity<Object>> getAllUser() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<Object>> deleteUserById(long id) {
+        return delete("/" + id);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.validation.Valid;
+import java.util.List;
+
+
+@RestController
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+@Profile("reactive")
+@RequestMapping(path = "/users")
+public class ReactiveUserController {
+
+    private final ReactiveUserClient userClient;
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> createUser(@Valid @RequestBody UserDto userDto) {
+        log.info("Create user userDto {}", userDto);
+        return userClient.createUser(userDto);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createUsers(@RequestBody List<@Valid UserDto> userDtos) {
+        log.info("Create users count {}", userDtos.size());
+        return userClient.createUsers(userDtos);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Object>> updateUser(@Valid @RequestBody UserDto userDto, @PathVariable Long id) {
+        log.info("Update user userDto {}, id {}", userDto, id);
+        return userClient.updateUser(id, userDto);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Object>> getAllUsers() {
+        return userClient.getAllUser();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Object>> getUserById(@PathVariable long id) {
+        log.info("Get by id {}", id);
+        return userClient.getUserById(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteUserById(@PathVariable long id) {
+        log.info("Delete by id {}", id);
+        return userClient.deleteUserById(id).then();
+    }
+}
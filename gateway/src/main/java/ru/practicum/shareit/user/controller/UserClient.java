@@ -3,26 +3,33 @@ package ru.practicum.shareit.user.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.ValidationException;
+import java.util.List;
 
 @Service
+@Profile("!reactive")
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
+    private static final int MAX_BATCH_SIZE = 10000;
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+            ClientHttpRequestFactory requestFactory, GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                responseCache
         );
     }
 
@@ -31,12 +38,17 @@ public class UserClient extends BaseClient {
         return post("", userDto);
     }
 
+    public ResponseEntity<Object> createUsers(List<UserDto> userDtos) {
+        validateUsers(userDtos);
+        return post("/batch", userDtos);
+    }
+
     public ResponseEntity<Object> updateUser(long id, UserDto userDto) {
         return patch("/" + id, userDto);
     }
 
     public ResponseEntity<Object> getUserById(long id) {
-        return get("/" + id);
+        return cachedGet("/" + id, null);
     }
 
     public ResponseEntity<Object> getAllUser() {
@@ -49,7 +61,14 @@ public class UserClient extends BaseClient {
 
 
 
-    private void validateUser(UserDto userDto) {
+    static void validateUsers(List<UserDto> userDtos) {
+        if (userDtos.isEmpty() || userDtos.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Размер пакета должен быть от 1 до " + MAX_BATCH_SIZE);
+        }
+        userDtos.forEach(UserClient::validateUser);
+    }
+
+    static void validateUser(UserDto userDto) {
         if (userDto.getName() == null || userDto.getEmail() == null ||
                 userDto.getName().isEmpty() || userDto.getEmail().isEmpty()) {
             throw new ValidationException();
@@ -2,17 +2,22 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
+import java.util.List;
 
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 @RequestMapping(path = "/users")
+@Profile("!reactive")
 public class UserController {
 
     private final UserClient userClient;
@@ -23,6 +28,12 @@ public class UserController {
         return userClient.createUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> createUsers(@RequestBody List<@Valid UserDto> userDtos) {
+        log.info("Create users count {}", userDtos.size());
+        return userClient.createUsers(userDtos);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<Object> updateUser(@Valid @RequestBody UserDto userDto, @PathVariable Long id) {
         log.info("Update user userDto {}, id {}", userDto, id);
@@ -0,0 +1,137 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.controller.UserClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//пул HttpClient 4 проверяется и при сборке с -Pvirtual-threads
+@SpringBootTest(properties = "shareit.threads.virtual.enabled=false")
+@AutoConfigureMockMvc
+public class BaseClientPassthroughTest {
+    //форматирование и запись числа изменились бы при разборе и повторной сериализации
+    private static final String USER = "{ \"id\": 1, \"name\": \"Ваня\", \"email\": \"vanya@mail.ru\", \"rating\": 1.50 }";
+    private static final String NOT_FOUND = "{\"error\":\"Пользователь не найден\"}";
+    private static final HttpServer SERVER = startServer();
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UserClient userClient;
+
+    @Autowired
+    PoolingHttpClientConnectionManager connectionManager;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @Test
+    @DisplayName("should pass server body bytes and headers through")
+    void shouldPassBodyThrough() throws Exception {
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json;charset=UTF-8"))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(header().longValue("Content-Length", USER.getBytes(StandardCharsets.UTF_8).length))
+                .andExpect(content().bytes(USER.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(connectionManager.getTotalStats().getLeased(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should pass server error through")
+    void shouldPassErrorThrough() throws Exception {
+        mvc.perform(get("/requests").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(NOT_FOUND.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(connectionManager.getTotalStats().getLeased(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should answer without body when server has none")
+    void shouldAnswerWithoutBody() throws Exception {
+        mvc.perform(get("/requests/all").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isNoContent())
+                .andExpect(content().bytes(new byte[0]));
+
+        assertThat(connectionManager.getTotalStats().getLeased(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should copy body when called outside of gateway request")
+    void shouldCopyBodyOutsideRequest() {
+        //в потоке теста Spring держит атрибуты запроса, поэтому вызов из другого потока
+        ResponseEntity<Object> response = CompletableFuture.supplyAsync(() -> userClient.getAllUser()).join();
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(USER));
+        assertThat(connectionManager.getTotalStats().getLeased(), equalTo(0));
+    }
+
+    //заглушка сервера ShareIt
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+            server.createContext("/", BaseClientPassthroughTest::handle);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        if (exchange.getRequestURI().getPath().equals("/requests/all")) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+        boolean found = exchange.getRequestURI().getPath().equals("/users");
+        byte[] bytes = (found ? USER : NOT_FOUND).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        if (found) {
+            exchange.getResponseHeaders().add("X-Total-Count", "1");
+        }
+        exchange.sendResponseHeaders(found ? 200 : 404, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class GatewayResponseCacheTest {
+    private static final HttpServer SERVER = startServer();
+    //путь на сервере -> тело ответа; ETag сервера - версия тела
+    private static final Map<String, String> BODIES = new ConcurrentHashMap<>();
+    private static final Map<String, String> CACHE_CONTROL = new ConcurrentHashMap<>();
+    private static final AtomicInteger FULL_RESPONSES = new AtomicInteger();
+    private static final AtomicInteger NOT_MODIFIED = new AtomicInteger();
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        BODIES.clear();
+        CACHE_CONTROL.clear();
+        FULL_RESPONSES.set(0);
+        NOT_MODIFIED.set(0);
+    }
+
+    @Test
+    @DisplayName("should serve unchanged item from cache after server answered not modified")
+    void shouldRevalidateWithEtag() throws Exception {
+        BODIES.put("/items/1", "{\"id\":1,\"name\":\"Пила\"}");
+        double revalidatedBefore = requests("revalidated");
+        double recomputationSavedBefore = recomputationSaved();
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/items/1").header("X-Sharer-User-Id", 1))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists("ETag"))
+                    .andExpect(content().string("{\"id\":1,\"name\":\"Пила\"}"));
+        }
+
+        assertThat(FULL_RESPONSES.get(), equalTo(1));
+        assertThat(NOT_MODIFIED.get(), equalTo(2));
+        assertThat(requests("revalidated") - revalidatedBefore, equalTo(2.0));
+        assertThat(recomputationSaved() - recomputationSavedBefore, equalTo(2.0));
+    }
+
+    @Test
+    @DisplayName("should replace cached response when server etag changed")
+    void shouldReplaceChangedResponse() throws Exception {
+        BODIES.put("/users/1", "{\"id\":1,\"name\":\"Ваня\"}");
+        mvc.perform(get("/users/1")).andExpect(content().string("{\"id\":1,\"name\":\"Ваня\"}"));
+
+        BODIES.put("/users/1", "{\"id\":1,\"name\":\"Петя\"}");
+        mvc.perform(get("/users/1")).andExpect(content().string("{\"id\":1,\"name\":\"Петя\"}"));
+        mvc.perform(get("/users/1")).andExpect(content().string("{\"id\":1,\"name\":\"Петя\"}"));
+
+        assertThat(FULL_RESPONSES.get(), equalTo(2));
+        assertThat(NOT_MODIFIED.get(), equalTo(1));
+    }
+
+    @Test
+    @DisplayName("should keep cached responses apart for different users")
+    void shouldKeyByUser() throws Exception {
+        BODIES.put("/items/2", "{\"id\":2}");
+        mvc.perform(get("/items/2").header("X-Sharer-User-Id", 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/2").header("X-Sharer-User-Id", 2)).andExpect(status().isOk());
+
+        assertThat(FULL_RESPONSES.get(), equalTo(2));
+        assertThat(NOT_MODIFIED.get(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should not count changed response as saved recomputation")
+    void shouldNotCountChangedResponseAsSaved() throws Exception {
+        BODIES.put("/users/2", "{\"id\":2,\"name\":\"Ваня\"}");
+        mvc.perform(get("/users/2")).andExpect(status().isOk());
+        double recomputationSavedBefore = recomputationSaved();
+
+        BODIES.put("/users/2", "{\"id\":2,\"name\":\"Петя\"}");
+        mvc.perform(get("/users/2")).andExpect(content().string("{\"id\":2,\"name\":\"Петя\"}"));
+        mvc.perform(get("/users/2")).andExpect(content().string("{\"id\":2,\"name\":\"Петя\"}"));
+
+        assertThat(recomputationSaved() - recomputationSavedBefore, equalTo(1.0));
+    }
+
+    @Test
+    @DisplayName("should not call server while response is fresh by max-age")
+    void shouldServeFreshWithoutServer() throws Exception {
+        BODIES.put("/requests/1", "{\"id\":1}");
+        CACHE_CONTROL.put("/requests/1", "max-age=60");
+        double savedBefore = meterRegistry.get("gateway.cache.upstream.saved").counter().count();
+
+        for (int i = 0; i < 3; i++) {
+            mvc.perform(get("/requests/1").header("X-Sharer-User-Id", 1))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("{\"id\":1}"));
+        }
+
+        assertThat(FULL_RESPONSES.get() + NOT_MODIFIED.get(), equalTo(1));
+        assertThat(meterRegistry.get("gateway.cache.upstream.saved").counter().count() - savedBefore, equalTo(2.0));
+        assertThat(meterRegistry.get("gateway.cache.hit.ratio").gauge().value(), closeTo(0.5, 0.5));
+    }
+
+    @Test
+    @DisplayName("should not cache response with no-store")
+    void shouldNotCacheNoStore() throws Exception {
+        BODIES.put("/items/3", "{\"id\":3}");
+        CACHE_CONTROL.put("/items/3", "no-store");
+
+        mvc.perform(get("/items/3").header("X-Sharer-User-Id", 1)).andExpect(status().isOk());
+        mvc.perform(get("/items/3").header("X-Sharer-User-Id", 1)).andExpect(status().isOk());
+
+        assertThat(FULL_RESPONSES.get(), equalTo(2));
+        assertThat(NOT_MODIFIED.get(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should pass server error through without caching")
+    void shouldNotCacheError() throws Exception {
+        mvc.perform(get("/items/404").header("X-Sharer-User-Id", 1)).andExpect(status().isNotFound());
+        mvc.perform(get("/items/404").header("X-Sharer-User-Id", 1)).andExpect(status().isNotFound());
+
+        assertThat(NOT_MODIFIED.get(), equalTo(0));
+    }
+
+    private double recomputationSaved() {
+        return meterRegistry.get("gateway.cache.recomputation.saved").counter().count();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("gateway.cache.requests").tag("result", result).counter().count();
+    }
+
+    //заглушка сервера ShareIt с ETag и ответом 304 на совпавший If-None-Match
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+            server.createContext("/", GatewayResponseCacheTest::handle);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body = BODIES.get(path);
+        if (body == null) {
+            byte[] bytes = "{\"error\":\"Не найдено\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(404, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+            return;
+        }
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (CACHE_CONTROL.containsKey(path)) {
+            exchange.getResponseHeaders().add("Cache-Control", CACHE_CONTROL.get(path));
+        }
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            NOT_MODIFIED.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        FULL_RESPONSES.incrementAndGet();
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveGatewayTest {
+
+    private static final HttpServer SERVER = startServer();
+    private static final AtomicInteger SERVER_CALLS = new AtomicInteger();
+    private static volatile String lastUserHeader;
+    private static volatile long delayMillis;
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", ReactiveGatewayTest::serverUrl);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        SERVER_CALLS.set(0);
+        lastUserHeader = null;
+        delayMillis = 0;
+    }
+
+    @Test
+    @DisplayName("should pass server response and headers through")
+    void shouldPassResponseThrough() {
+        webTestClient.get().uri("/bookings?state=ALL&from=0&size=10&includeTotal=true")
+                .header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "3")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1);
+
+        assertThat(lastUserHeader, equalTo("7"));
+    }
+
+    @Test
+    @DisplayName("should pass server error status and body through")
+    void shouldPassErrorThrough() {
+        webTestClient.get().uri("/items/5")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Вещи не существует");
+    }
+
+    @Test
+    @DisplayName("should validate request before calling server")
+    void shouldValidateBeforeServer() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Ваня\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/bookings?size=0")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/bookings?state=UNKNOWN")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().is5xxServerError()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Unknown state: UNSUPPORTED_STATUS");
+
+        assertThat(SERVER_CALLS.get(), equalTo(0));
+    }
+
+    @Test
+    @DisplayName("should stream bookings export")
+    void shouldStreamExport() {
+        webTestClient.get().uri("/bookings/export")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2);
+    }
+
+    //запуск: mvn test -Dtest=ReactiveGatewayTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("reactive gateway should hold more concurrent requests than blocking one")
+    void shouldHoldMoreConcurrentRequests() throws Exception {
+        int concurrency = 1000;
+        delayMillis = 100;
+        //без ClientHttpConnectorAutoConfiguration: при закрытии она освобождает общие ресурсы Reactor Netty
+        ConfigurableApplicationContext blocking = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0", "--shareit-server.url=" + serverUrl(), "--server.tomcat.threads.max=200",
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO",
+                        "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.web.reactive.function.client"
+                                + ".ClientHttpConnectorAutoConfiguration");
+        try {
+            int blockingPort = Integer.parseInt(blocking.getEnvironment().getProperty("local.server.port"));
+            load(blockingPort, 50);
+            long blockingMillis = load(blockingPort, concurrency);
+            load(port, 50);
+            long reactiveMillis = load(port, concurrency);
+
+            System.out.println(concurrency + " одновременных запросов при ответе сервера за " + delayMillis
+                    + " мс: блокирующий шлюз " + blockingMillis + " мс, реактивный " + reactiveMillis + " мс");
+            assertThat(reactiveMillis, lessThan(blockingMillis));
+        } finally {
+            blocking.close();
+        }
+    }
+
+    private long load(int gatewayPort, int concurrency) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + gatewayPort + "/users/1"))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+        long begin = System.currentTimeMillis();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        long ok = responses.stream()
+                .map(CompletableFuture::join)
+                .filter(response -> response.statusCode() == 200)
+                .count();
+        assertThat(ok, equalTo((long) concurrency));
+        return System.currentTimeMillis() - begin;
+    }
+
+    private static String serverUrl() {
+        return "http://localhost:" + SERVER.getAddress().getPort();
+    }
+
+    //заглушка сервера ShareIt
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 2000);
+            server.createContext("/", ReactiveGatewayTest::handle);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        SERVER_CALLS.incrementAndGet();
+        lastUserHeader = exchange.getRequestHeaders().getFirst("X-Sharer-User-Id");
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String path = exchange.getRequestURI().getPath();
+        int status = 200;
+        String body;
+        if (path.equals("/users/1")) {
+            body = "{\"id\":1,\"name\":\"Ваня\",\"email\":\"vanya@mail.ru\"}";
+        } else if (path.equals("/bookings/export")) {
+            body = "[{\"id\":1},{\"id\":2}]";
+        } else if (path.equals("/bookings")) {
+            exchange.getResponseHeaders().add("X-Total-Count", "3");
+            body = "[{\"id\":1}]";
+        } else {
+            status = 404;
+            body = "{\"error\":\"Вещи не существует\"}";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
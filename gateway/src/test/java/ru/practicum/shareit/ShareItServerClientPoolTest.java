@@ -0,0 +1,176 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.controller.BookingClient;
+import ru.practicum.shareit.config.ShareItServerClientConfig;
+import ru.practicum.shareit.item.controller.ItemClient;
+import ru.practicum.shareit.user.controller.UserClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.threads.virtual.enabled=false",
+        "shareit-server.client.max-total=50",
+        "shareit-server.client.max-per-route=50",
+        "shareit-server.client.read-timeout=500ms"})
+@AutoConfigureMockMvc
+public class ShareItServerClientPoolTest {
+    private static final HttpServer SERVER = startServer();
+    private static volatile long delayMillis;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    UserClient userClient;
+
+    @Autowired
+    ItemClient itemClient;
+
+    @Autowired
+    BookingClient bookingClient;
+
+    @Autowired
+    ClientHttpRequestFactory requestFactory;
+
+    @Autowired
+    PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", () -> "http://localhost:" + SERVER.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        delayMillis = 0;
+    }
+
+    @Test
+    @DisplayName("should share one configured connection pool between clients")
+    void shouldShareOnePool() {
+        assertThat(requestFactory(userClient), sameInstance(requestFactory));
+        assertThat(requestFactory(itemClient), sameInstance(requestFactory));
+        assertThat(requestFactory(bookingClient), sameInstance(requestFactory));
+        assertThat(connectionManager.getMaxTotal(), equalTo(50));
+        assertThat(connectionManager.getDefaultMaxPerRoute(), equalTo(50));
+    }
+
+    @Test
+    @DisplayName("should run concurrent requests on parallel connections")
+    void shouldRunConcurrentRequestsInParallel() {
+        delayMillis = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(40);
+        try {
+            long begin = System.currentTimeMillis();
+            List<CompletableFuture<Integer>> responses = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                responses.add(CompletableFuture.supplyAsync(() -> userClient.getUserById(1).getStatusCodeValue(), executor));
+            }
+            responses.forEach(response -> assertThat(response.join(), equalTo(200)));
+
+            //при прежних 5 соединениях на маршрут 40 запросов шли бы 8 волнами по 200 мс
+            assertThat(System.currentTimeMillis() - begin, lessThan(1000L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should answer bad gateway when server does not respond in time")
+    void shouldAnswerBadGatewayOnReadTimeout() throws Exception {
+        delayMillis = 2000;
+
+        mvc.perform(get("/users/1"))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.message").value("Сервер недоступен"));
+    }
+
+    @Test
+    @DisplayName("should publish pool metrics")
+    void shouldPublishPoolMetrics() {
+        userClient.getUserById(1);
+
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", ShareItServerClientConfig.POOL_NAME).gauge().value(), equalTo(50.0));
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", ShareItServerClientConfig.POOL_NAME).tag("state", "available").gauge().value(),
+                greaterThan(0.0));
+    }
+
+    //getRequestFactory() вернул бы обертку с перехватчиком метрик actuator
+    private static Object requestFactory(Object client) {
+        return ReflectionTestUtils.getField(ReflectionTestUtils.getField(client, "rest"), "requestFactory");
+    }
+
+    //заглушка сервера ShareIt
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+            server.createContext("/", ShareItServerClientPoolTest::handle);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = "{\"id\":1,\"name\":\"Ваня\",\"email\":\"vanya@mail.ru\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        } catch (IOException e) {
+            //шлюз уже закрыл соединение по таймауту
+        }
+    }
+}
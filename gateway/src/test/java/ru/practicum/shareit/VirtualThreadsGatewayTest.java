@@ -0,0 +1,120 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+//запуск на JDK 21: mvn test -Pvirtual-threads -Dtest=VirtualThreadsGatewayTest -Dbenchmark=true [-Dclients=N]
+//клиент, шлюз и заглушка в одном процессе держат по 4 сокета на запрос: число клиентов ограничено ulimit -n
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIfSystemProperty(named = "shareit.threads.virtual.enabled", matches = "true")
+public class VirtualThreadsGatewayTest {
+    private static final int CLIENTS = Integer.getInteger("clients", 2_000);
+    private static final long SERVER_DELAY_MILLIS = 100;
+
+    private static HttpServer server;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CLIENTS);
+        server.createContext("/", VirtualThreadsGatewayTest::handle);
+        server.setExecutor(new VirtualThreadExecutor("stub-"));
+        server.start();
+    }
+
+    @AfterAll
+    static void afterAll() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("gateway on virtual threads should serve more requests per second than on platform pool")
+    void shouldScaleOnVirtualThreads() {
+        double platformThroughput = measure(false);
+        double virtualThroughput = measure(true);
+
+        System.out.printf("%d клиентов при ответе сервера за %d мс: пул Tomcat %.0f запр/с, виртуальные потоки %.0f запр/с%n",
+                CLIENTS, SERVER_DELAY_MILLIS, platformThroughput, virtualThroughput);
+        assertThat(virtualThroughput, greaterThan(platformThroughput));
+    }
+
+    //аргументы командной строки важнее системного свойства из профиля virtual-threads
+    //журнал запросов отключен: запись в консоль под блокировкой logback выравнивает оба режима
+    private double measure(boolean virtualThreads) {
+        ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0", "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.max-connections=" + CLIENTS, "--server.tomcat.accept-count=" + CLIENTS,
+                        "--shareit-server.client.max-total=" + CLIENTS, "--shareit-server.client.max-per-route=" + CLIENTS,
+                        "--logging.level.org.springframework.web.client.RestTemplate=INFO",
+                        "--logging.level.ru.practicum.shareit=WARN");
+        try {
+            int port = Integer.parseInt(gateway.getEnvironment().getProperty("local.server.port"));
+            load(port, 100);
+            long millis = load(port, CLIENTS);
+            return CLIENTS * 1000.0 / millis;
+        } finally {
+            gateway.close();
+        }
+    }
+
+    private long load(int gatewayPort, int clients) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + gatewayPort + "/users/1"))
+                .timeout(Duration.ofMinutes(5))
+                .build();
+        long begin = System.currentTimeMillis();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        long ok = responses.stream()
+                .map(CompletableFuture::join)
+                .filter(response -> response.statusCode() == 200)
+                .count();
+        assertThat(ok, equalTo((long) clients));
+        return System.currentTimeMillis() - begin;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(SERVER_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = "{\"id\":1,\"name\":\"Ваня\",\"email\":\"vanya@mail.ru\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -11,10 +11,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.controller.BookingClient;
 import ru.practicum.shareit.booking.controller.BookingController;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.booking.dto.Status;
 import ru.practicum.shareit.item.controller.ItemClient;
 import ru.practicum.shareit.item.model.Item;
@@ -25,12 +28,14 @@ import javax.validation.ValidationException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -129,4 +134,35 @@ public class BookingControllerTest {
         verify(bookingClient, times(1))
                 .bookItem(anyLong(), any());
     }
+
+    @Test
+    @DisplayName("should proxy bookings export")
+    void shouldExportBookings() throws Exception {
+        byte[] body = mapper.writeValueAsBytes(new BookingDto[]{bookingDto});
+        StreamingResponseBody streamingBody = outputStream -> outputStream.write(body);
+        when(bookingClient.exportBookings(1L))
+                .thenReturn(ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(streamingBody));
+
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .header(HEADER, 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].status", is(bookingDto.getStatus().name())));
+    }
+
+    @Test
+    @DisplayName("should proxy owner bookings slice")
+    void shouldGetOwnerBookingsSlice() throws Exception {
+        when(bookingClient.getAllBookingsForCurrentUserSlice(1L, BookingState.PAST, "cursor", 5))
+                .thenReturn(new ResponseEntity<>(Map.of("hasNext", false), HttpStatus.OK));
+
+        mvc.perform(get("/bookings/owner/slice?state=past&after=cursor&size=5")
+                        .header(HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
 }
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.config.ShareItServerClientConfig;
+import ru.practicum.shareit.config.ShareItServerClientProperties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+//makeAndSendRequest на ответе сервера в 1 МБ: прежний разбор в Object против передачи байтов
+//запуск: mvn test -Dtest=BaseClientBenchmark -Dbenchmark=true
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseClientBenchmark {
+    private static final int PAYLOAD_SIZE = 1024 * 1024;
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private BenchmarkClient client;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() throws IOException {
+        //в JVM бенчмарка нет настроек логирования Spring Boot, а журнал HttpClient на DEBUG исказил бы замер
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+        objectMapper = new ObjectMapper();
+        byte[] payload = payload();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+        server.createContext("/items", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(payload);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+
+        ShareItServerClientConfig config = new ShareItServerClientConfig();
+        ShareItServerClientProperties properties = new ShareItServerClientProperties();
+        connectionManager = config.shareItServerConnectionManager(properties);
+        client = new BenchmarkClient(new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + server.getAddress().getPort()))
+                .requestFactory(() -> config.shareItServerRequestFactory(connectionManager, properties))
+                .build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionManager.close();
+        server.stop(0);
+    }
+
+    //прежний путь: ответ разбирается в дерево LinkedHashMap и сериализуется заново при записи клиенту
+    @Benchmark
+    public void deserialize() throws IOException {
+        Object body = client.getAsObject("/items", 1L);
+        objectMapper.writeValue(OutputStream.nullOutputStream(), body);
+    }
+
+    //как в запросе к шлюзу: байты из соединения с сервером копируются в ответ
+    @Benchmark
+    public void passthrough() throws IOException {
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+        try {
+            ResponseEntity<Object> response = client.get("/items", 1L);
+            try (InputStream body = ((Resource) response.getBody()).getInputStream()) {
+                StreamUtils.copy(body, OutputStream.nullOutputStream());
+            }
+        } finally {
+            attributes.requestCompleted();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void shouldPassBytesFasterThanObjects() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(BaseClientBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        Map<String, RunResult> byName = new LinkedHashMap<>();
+        results.forEach(result -> byName.put(result.getParams().getBenchmark().replaceAll(".*\\.", ""), result));
+        RunResult deserialize = byName.get("deserialize");
+        RunResult passthrough = byName.get("passthrough");
+        System.out.printf("Ответ 1 МБ: разбор %.2f мс и %.0f байт на вызов, передача байтов %.2f мс и %.0f байт на вызов%n",
+                deserialize.getPrimaryResult().getScore(), allocated(deserialize),
+                passthrough.getPrimaryResult().getScore(), allocated(passthrough));
+        assertThat(passthrough.getPrimaryResult().getScore(), lessThan(deserialize.getPrimaryResult().getScore()));
+        assertThat(allocated(passthrough), lessThan(allocated(deserialize)));
+    }
+
+    private static double allocated(RunResult result) {
+        return result.getSecondaryResults().get("gc.alloc.rate.norm").getScore();
+    }
+
+    //список вещей в формате ответа сервера, не меньше PAYLOAD_SIZE байт
+    private byte[] payload() throws IOException {
+        List<Map<String, Object>> items = new ArrayList<>();
+        byte[] payload = new byte[0];
+        while (payload.length < PAYLOAD_SIZE) {
+            for (int i = 0; i < 500; i++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("id", (long) items.size() + 1);
+                item.put("name", "Дрель " + items.size());
+                item.put("description", "Ударная дрель с набором сверл, мощность 800 Вт");
+                item.put("available", true);
+                item.put("requestId", null);
+                item.put("lastBooking", Map.of("id", items.size(), "bookerId", 2, "start", "2024-01-01T10:00:00"));
+                item.put("nextBooking", null);
+                item.put("comments", List.of());
+                items.add(item);
+            }
+            payload = objectMapper.writeValueAsBytes(items);
+        }
+        return payload;
+    }
+
+    static class BenchmarkClient extends BaseClient {
+
+        BenchmarkClient(RestTemplate rest) {
+            super(rest);
+        }
+
+        Object getAsObject(String path, long userId) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            return rest.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), Object.class).getBody();
+        }
+
+        @Override
+        protected ResponseEntity<Object> get(String path, long userId) {
+            return super.get(path, userId);
+        }
+    }
+}
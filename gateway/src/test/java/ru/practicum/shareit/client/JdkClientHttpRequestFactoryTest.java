@@ -0,0 +1,109 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.user.controller.UserClient;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class JdkClientHttpRequestFactoryTest {
+    private static final String USER = "{ \"id\": 1, \"name\": \"Ваня\", \"email\": \"vanya@mail.ru\" }";
+    private static final HttpServer SERVER = startServer();
+
+    private final UserClient userClient = new UserClient("http://localhost:" + SERVER.getAddress().getPort(),
+            new RestTemplateBuilder(),
+            new JdkClientHttpRequestFactory(HttpClient.newHttpClient(), Duration.ofSeconds(5)), null);
+
+    @AfterAll
+    static void afterAll() {
+        SERVER.stop(0);
+    }
+
+    @Test
+    @DisplayName("should pass server body and headers through")
+    void shouldPassBodyThrough() {
+        ResponseEntity<Object> response = userClient.getAllUser();
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getHeaders().getFirst("X-Total-Count"), equalTo("1"));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8), equalTo(USER));
+    }
+
+    @Test
+    @DisplayName("should send request method, headers and body")
+    void shouldSendRequestBody() {
+        ResponseEntity<Object> response = userClient.updateUser(1L, UserDto.builder().name("Петя").build());
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getHeaders().getFirst("X-Method"), equalTo("PATCH"));
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8),
+                equalTo("{\"id\":null,\"name\":\"Петя\",\"email\":null}"));
+    }
+
+    @Test
+    @DisplayName("should pass error status and empty response through")
+    void shouldPassStatusThrough() {
+        assertThat(userClient.getUserById(2L).getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+
+        ResponseEntity<Object> response = userClient.deleteUserById(1L);
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NO_CONTENT));
+        assertThat(response.getBody(), nullValue());
+    }
+
+    //заглушка сервера ShareIt: PATCH возвращает полученное тело
+    private static HttpServer startServer() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 100);
+            server.createContext("/", JdkClientHttpRequestFactoryTest::handle);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (method.equals("DELETE")) {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes;
+        int status = 200;
+        if (method.equals("PATCH")) {
+            bytes = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("X-Method", method);
+        } else if (path.equals("/users")) {
+            bytes = USER.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("X-Total-Count", "1");
+        } else {
+            bytes = "{\"error\":\"Пользователь не найден\"}".getBytes(StandardCharsets.UTF_8);
+            status = 404;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
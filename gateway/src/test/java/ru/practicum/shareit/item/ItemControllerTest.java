@@ -15,12 +15,14 @@ import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
 import ru.practicum.shareit.item.controller.CommentClient;
 import ru.practicum.shareit.item.controller.ItemClient;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.controller.ItemImportClient;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.controller.UserClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.ValidationException;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -44,6 +46,9 @@ public class ItemControllerTest {
     @MockBean
     private CommentClient commentClient;
 
+    @MockBean
+    private ItemImportClient itemImportClient;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -110,4 +115,26 @@ public class ItemControllerTest {
                 .createItem(any(), anyLong());
     }
 
+    @Test
+    @DisplayName("should pass availability period to server")
+    void getItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 3, 10, 0);
+        when(itemClient.getItemAvailability(1L, 1L, from, to))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-03T10:00:00")
+                        .header(HEADER, 1))
+                .andExpect(status().isOk());
+        mvc.perform(get("/items/1/availability")
+                        .param("from", "2030-01-01T10:00:00")
+                        .header(HEADER, 1))
+                .andExpect(status().is4xxClientError());
+
+        verify(itemClient, times(1))
+                .getItemAvailability(anyLong(), anyLong(), any(), any());
+    }
+
 }
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.item.controller.ItemImportClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ItemImportClientTest {
+
+    private static final String VALID = "{\"name\":\"Пила\",\"description\":\"Пилит\",\"available\":true}";
+
+    private MockRestServiceServer server;
+    private ItemImportClient itemImportClient;
+
+    @BeforeEach
+    void beforeEach() {
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        itemImportClient = new ItemImportClient("http://server", new RestTemplateBuilder(customizer),
+                new SimpleClientHttpRequestFactory(), new ObjectMapper(), 100);
+        server = customizer.getServer();
+    }
+
+    @Test
+    @DisplayName("should forward valid lines and keep line numbers")
+    void shouldForwardValidLines() throws IOException {
+        server.expect(requestTo("http://server/items/import?firstLine=1"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andExpect(content().string(VALID + "\n\n" + VALID + "\n"))
+                .andRespond(withSuccess("{\"line\":1,\"id\":10}\n{\"line\":3,\"id\":11}\n", MediaType.APPLICATION_NDJSON));
+
+        String result = importItems(VALID + "\n{\"name\":\"Пила\"}\n" + VALID + "\n");
+
+        assertThat(result, equalTo("{\"line\":1,\"id\":10}\n" +
+                "{\"line\":2,\"error\":\"Не заполнены name, description или available\"}\n" +
+                "{\"line\":3,\"id\":11}\n"));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("should reject line longer than limit and forward the rest")
+    void shouldRejectTooLongLine() throws IOException {
+        server.expect(requestTo("http://server/items/import?firstLine=1"))
+                .andExpect(content().string(VALID + "\n\n" + VALID + "\n"))
+                .andRespond(withSuccess("{\"line\":1,\"id\":10}\n{\"line\":3,\"id\":11}\n", MediaType.APPLICATION_NDJSON));
+
+        String result = importItems(VALID + "\r\n{\"name\":\"" + "я".repeat(10_000) + "\"}\n" + VALID);
+
+        assertThat(result, equalTo("{\"line\":1,\"id\":10}\n" +
+                "{\"line\":2,\"error\":\"Строка длиннее 100 символов\"}\n" +
+                "{\"line\":3,\"id\":11}\n"));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("should send upload in chunks")
+    void shouldSendChunks() throws IOException {
+        server.expect(requestTo("http://server/items/import?firstLine=1"))
+                .andRespond(withSuccess("", MediaType.APPLICATION_NDJSON));
+        server.expect(requestTo("http://server/items/import?firstLine=" + (ItemImportClient.CHUNK_SIZE + 1)))
+                .andExpect(content().string(VALID + "\n"))
+                .andRespond(withSuccess("", MediaType.APPLICATION_NDJSON));
+
+        importItems((VALID + "\n").repeat(ItemImportClient.CHUNK_SIZE + 1));
+
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("should report server error for forwarded lines")
+    void shouldReportServerError() throws IOException {
+        server.expect(requestTo("http://server/items/import?firstLine=1"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        String result = importItems("не json\n" + VALID);
+
+        assertThat(result, equalTo("{\"line\":1,\"error\":\"Некорректный JSON\"}\n" +
+                "{\"line\":2,\"error\":\"Сервер ответил 404\"}\n"));
+    }
+
+    private String importItems(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        itemImportClient.importItems(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), 1L)
+                .writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
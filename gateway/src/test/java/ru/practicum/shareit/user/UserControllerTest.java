@@ -17,6 +17,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.ValidationException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
@@ -86,5 +87,40 @@ public class UserControllerTest {
                 .createUser(any());
     }
 
+    @Test
+    @DisplayName("should save users batch")
+    void saveUsersBatch() throws Exception {
+        when(userClient.createUsers(any()))
+                .thenReturn(new ResponseEntity<>(List.of(userDto), HttpStatus.OK));
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(userDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(userDto.getId()), Long.class));
+
+        verify(userClient, times(1))
+                .createUsers(any());
+    }
+
+    @Test
+    @DisplayName("should not save users batch with invalid email")
+    void saveNotUsersBatchInvalidEmail() throws Exception {
+        UserDto invalid = UserDto.builder()
+                .name("Петя")
+                .email("не почта")
+                .build();
+
+        mvc.perform(post("/users/batch")
+                        .content(mapper.writeValueAsString(List.of(userDto, invalid)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
 
+        verify(userClient, never())
+                .createUsers(any());
+    }
 }
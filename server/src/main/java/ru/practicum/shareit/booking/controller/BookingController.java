@@ -1,14 +1,23 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,6 +25,8 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
     @PostMapping
     public BookingDto createBooking(@RequestBody BookingDtoIn bookingDtoIn,
@@ -30,25 +41,77 @@ public class BookingController {
         return bookingService.updateBooking(bookingId, approved, userId);
     }
 
+    //выгрузка всей истории бронирований, JSON пишется в ответ по мере чтения страниц из базы
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAllBookings(@RequestHeader(value = "X-Sharer-User-Id") long userId) {
+        Stream<BookingDto> bookings = bookingService.exportAllBookings(userId);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (Iterator<BookingDto> iterator = bookings.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@PathVariable Long bookingId,
-                                     @RequestHeader(value = "X-Sharer-User-Id") long userId) {
+                                     @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                     WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingEtag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public List<BookingDto> getAllBookingsByUserId(@RequestParam(defaultValue = "ALL") State state,
-                                                   @RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                   @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                   @RequestParam(required = false, defaultValue = "10")  Integer size) {
-        return bookingService.getAllBookingsByUserIdAndState(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllBookingsByUserId(@RequestParam(defaultValue = "ALL") State state,
+                                                                   @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                   @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                                   @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                                                   @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        List<BookingDto> bookings = bookingService.getAllBookingsByUserIdAndState(userId, state, from, size);
+        if (!includeTotal) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(bookingService.countBookingsByUserIdAndState(userId, state)))
+                .body(bookings);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllBookingsForCurrentUser(@RequestParam(defaultValue = "ALL") State state,
-                                                         @RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                         @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                         @RequestParam(required = false, defaultValue = "10")  Integer size) {
-        return bookingService.getAllBookingsCurrentUser(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllBookingsForCurrentUser(@RequestParam(defaultValue = "ALL") State state,
+                                                                         @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                         @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                                         @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                                                         @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        List<BookingDto> bookings = bookingService.getAllBookingsCurrentUser(userId, state, from, size);
+        if (!includeTotal) {
+            return ResponseEntity.ok(bookings);
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(bookingService.countBookingsCurrentUser(userId, state)))
+                .body(bookings);
+    }
+
+    @GetMapping("/slice")
+    public BookingSliceDto getBookingsSliceByUserId(@RequestParam(defaultValue = "ALL") State state,
+                                                    @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                    @RequestParam(required = false) String after,
+                                                    @RequestParam(required = false, defaultValue = "10") Integer size) {
+        return bookingService.getBookingsSliceByUserIdAndState(userId, state, after, size);
+    }
+
+    @GetMapping("/owner/slice")
+    public BookingSliceDto getBookingsSliceForCurrentUser(@RequestParam(defaultValue = "ALL") State state,
+                                                          @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                          @RequestParam(required = false) String after,
+                                                          @RequestParam(required = false, defaultValue = "10") Integer size) {
+        return bookingService.getBookingsSliceCurrentUser(userId, state, after, size);
     }
 }
@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+//позиция в выдаче бронирований, отсортированной по start desc, id desc
+@Getter
+@AllArgsConstructor
+public class BookingCursor {
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime start;
+    private final long id;
+
+    //курсор первой страницы: раньше него находятся все бронирования
+    public static BookingCursor first() {
+        return new BookingCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    }
+
+    //база хранит время с точностью до микросекунд и округляет, а в только что сохраненной сущности остаются наносекунды
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getStart().plusNanos(500).truncatedTo(ChronoUnit.MICROS), booking.getId());
+    }
+
+    //строка прочитана из базы, время в ней уже с точностью до микросекунд
+    public static BookingCursor of(BookingRow row) {
+        return new BookingCursor(row.getStart(), row.getId());
+    }
+
+    public static BookingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return first();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new InvalidCursorException("Некорректный курсор: " + token);
+            }
+            return new BookingCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Некорректный курсор: " + token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((start + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
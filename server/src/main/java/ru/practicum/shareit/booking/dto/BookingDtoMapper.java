@@ -3,9 +3,18 @@ package ru.practicum.shareit.booking.dto;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingDtoMapper {
     public static BookingDto toBookingDto(Booking booking) {
@@ -19,10 +28,60 @@ public class BookingDtoMapper {
         );
     }
 
+    public static BookingDto toBookingDto(BookingRow row) {
+        return toBookingDto(row, new HashMap<>(), new HashMap<>());
+    }
+
+    //пользователи и вещи на странице повторяются, поэтому создаются один раз на идентификатор
+    public static List<BookingDto> toBookingDtos(List<BookingRow> rows) {
+        Map<Long, User> users = new HashMap<>();
+        Map<Long, Item> items = new HashMap<>();
+        List<BookingDto> bookings = new ArrayList<>(rows.size());
+        for (BookingRow row : rows) {
+            bookings.add(toBookingDto(row, users, items));
+        }
+        return bookings;
+    }
+
+    private static BookingDto toBookingDto(BookingRow row, Map<Long, User> users, Map<Long, Item> items) {
+        Item item = items.computeIfAbsent(row.getItemId(), id -> {
+            ItemRequest itemRequest = null;
+            if (row.getRequestId() != null) {
+                User requestor = row.getRequestorId() == null ? null : users.computeIfAbsent(row.getRequestorId(),
+                        userId -> toUser(userId, row.getRequestorName(), row.getRequestorEmail()));
+                itemRequest = ItemRequest.builder()
+                        .id(row.getRequestId())
+                        .description(row.getRequestDescription())
+                        .requestor(requestor)
+                        .created(row.getRequestCreated())
+                        .build();
+            }
+            User owner = users.computeIfAbsent(row.getOwnerId(), userId -> toUser(userId, row.getOwnerName(), row.getOwnerEmail()));
+            return Item.builder()
+                    .id(id)
+                    .name(row.getItemName())
+                    .description(row.getItemDescription())
+                    .available(row.getItemAvailable())
+                    .owner(owner)
+                    .itemRequest(itemRequest)
+                    .build();
+        });
+        User booker = users.computeIfAbsent(row.getBookerId(), userId -> toUser(userId, row.getBookerName(), row.getBookerEmail()));
+        return new BookingDto(row.getId(),
+                row.getStart(),
+                row.getEnd(),
+                row.getStatus(),
+                booker,
+                item,
+                row.getItemName()
+        );
+    }
+
     public static Booking toBookingFromBookingIn(BookingDtoIn bookingDtoIn, User booker, Item item) {
+        //в базе время хранится с точностью до микросекунд, ответ должен совпадать с последующим чтением
         return Booking.builder()
-                .start(bookingDtoIn.getStart())
-                .end(bookingDtoIn.getEnd())
+                .start(toMicros(bookingDtoIn.getStart()))
+                .end(toMicros(bookingDtoIn.getEnd()))
                 .item(item)
                 .booker(booker)
                 .build();
@@ -36,4 +95,25 @@ public class BookingDtoMapper {
                 booking.getStatus()
         );
     }
+
+    public static BookingDtoForItem toBookingDtoForItem(BookingForItemView view) {
+        return new BookingDtoForItem(view.getId(),
+                view.getStartDate(),
+                view.getEndDate(),
+                view.getBookerId(),
+                Status.valueOf(view.getStatus())
+        );
+    }
+
+    private static User toUser(Long id, String name, String email) {
+        return User.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .build();
+    }
+
+    private static LocalDateTime toMicros(LocalDateTime time) {
+        return time == null ? null : time.truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+public interface BookingForItemView {
+    Long getItemId();
+
+    Long getId();
+
+    LocalDateTime getStartDate();
+
+    LocalDateTime getEndDate();
+
+    Long getBookerId();
+
+    String getStatus();
+
+    String getKind(); // LAST или NEXT
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+//плоская строка выборки для BookingDto: поля бронирования, вещи, владельца, запроса и арендатора без загрузки сущностей
+@Getter
+@AllArgsConstructor
+public class BookingRow {
+    private Long id;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Status status;
+    private Long bookerId;
+    private String bookerName;
+    private String bookerEmail;
+    private Long itemId;
+    private String itemName;
+    private String itemDescription;
+    private Boolean itemAvailable;
+    private Long ownerId;
+    private String ownerName;
+    private String ownerEmail;
+    private Long requestId;
+    private String requestDescription;
+    private LocalDateTime requestCreated;
+    private Long requestorId;
+    private String requestorName;
+    private String requestorEmail;
+}
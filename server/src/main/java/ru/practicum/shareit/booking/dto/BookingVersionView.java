@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+//версии бронирования и всех сущностей, которые выводятся в BookingDto
+public interface BookingVersionView {
+    Long getVersion();
+
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+
+    Long getOwnerVersion();
+
+    Long getRequestVersion();
+
+    Long getRequestorVersion();
+
+    default String toEtag() {
+        return "b" + getVersion() + "-i" + getItemVersion() + "-u" + getBookerVersion() + "." + getOwnerVersion()
+                + "-r" + getRequestVersion() + "." + getRequestorVersion();
+    }
+}
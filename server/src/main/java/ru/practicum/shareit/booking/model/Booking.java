@@ -16,9 +16,23 @@ import java.time.LocalDateTime;
 @Entity
 @Builder
 @Table(name = "BOOKINGS")
+//все, что попадает в BookingDto: вещь с владельцем и запросом, арендатор
+@NamedEntityGraph(name = "Booking.forDto",
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "itemRequest", subgraph = "itemRequest")
+                }),
+                @NamedSubgraph(name = "itemRequest", attributeNodes = @NamedAttributeNode("requestor"))
+        })
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id", nullable = false)
     private Long id;
 
@@ -28,11 +42,11 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
 
@@ -40,4 +54,7 @@ public class Booking {
     @Column(name = "status", nullable = false)
     private Status status;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 }
@@ -1,66 +1,248 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingForItemView;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Page<Booking> findByBooker_Id(Long bookerId, Pageable pageable);
+    //общая часть запросов постраничной выдачи, запросы отличаются только условием where
+    String BOOKING_ROWS = "select new ru.practicum.shareit.booking.dto.BookingRow(b.id, b.start, b.end, b.status, " +
+            "bk.id, bk.name, bk.email, i.id, i.name, i.description, i.available, o.id, o.name, o.email, " +
+            "r.id, r.description, r.created, rq.id, rq.name, rq.email) " +
+            "from Booking b " +
+            "join b.item i " +
+            "join i.owner o " +
+            "join b.booker bk " +
+            "left join i.itemRequest r " +
+            "left join r.requestor rq ";
 
-    @Query("select b " +
+    //порядок выдачи по курсору, см. BookingCursor
+    String SLICE_ORDER = "order by b.start desc, b.id desc ";
+
+    @Override
+    @EntityGraph("Booking.forDto")
+    Optional<Booking> findById(Long id);
+
+    //пересечение с бронированиями вещи, кроме отклоненных и самого бронирования; интервалы могут касаться концами
+    @Query("select count(b) > 0 " +
             "from Booking b " +
-            "where b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2 ")
-    Page<Booking> findAllBookingsForStateCurrent(long userId,  LocalDateTime time, Pageable pageable);
+            "where b.item.id = ?1 AND b.id <> ?4 " +
+            "AND b.status <> ru.practicum.shareit.booking.model.Status.REJECTED " +
+            "AND b.start < ?3 AND b.end > ?2 ")
+    boolean existsOverlapping(long itemId, LocalDateTime start, LocalDateTime end, long exceptBookingId);
+
+    //смена статуса, только если он не изменился с момента чтения; блокировка строки держится один update
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ?3, b.version = b.version + 1 " +
+            "where b.id = ?1 AND b.status = ?2 ")
+    int updateStatus(long id, Status expectedStatus, Status status);
+
+    //для ETag: версии по первичным ключам вместо загрузки графа Booking.forDto
+    @Query("select b.version as version, bk.id as bookerId, o.id as ownerId, i.version as itemVersion, " +
+            "bk.version as bookerVersion, o.version as ownerVersion, r.version as requestVersion, rq.version as requestorVersion " +
+            "from Booking b " +
+            "join b.item i " +
+            "join i.owner o " +
+            "join b.booker bk " +
+            "left join i.itemRequest r " +
+            "left join r.requestor rq " +
+            "where b.id = ?1 ")
+    Optional<BookingVersionView> findVersionsById(long id);
+
+    //постраничная выдача для чтения: строки BookingRow вместо управляемых сущностей
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 ")
+    List<BookingRow> findByBooker_Id(Long bookerId, Pageable pageable);
 
-    Page<Booking> findByBooker_IdAndEndIsBefore(Long bookerId, LocalDateTime time, Pageable pageable);
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2 ")
+    List<BookingRow> findAllBookingsForStateCurrent(long userId,  LocalDateTime time, Pageable pageable);
 
-    Page<Booking> findByBooker_IdAndStartIsAfter(Long bookerId, LocalDateTime time, Pageable pageable);
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.end < ?2 ")
+    List<BookingRow> findByBooker_IdAndEndIsBefore(Long bookerId, LocalDateTime time, Pageable pageable);
 
-    Page<Booking> findByBooker_IdAndStatus(Long bookerId, Status status, Pageable pageable);
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.start > ?2 ")
+    List<BookingRow> findByBooker_IdAndStartIsAfter(Long bookerId, LocalDateTime time, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.status = ?2 ")
+    List<BookingRow> findByBooker_IdAndStatus(Long bookerId, Status status, Pageable pageable);
 
     //для владельца вещей
 
-    Page<Booking> findByItem_Owner_Id(Long ownerId, Pageable pageable);
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 ")
+    List<BookingRow> findByItem_Owner_Id(Long ownerId, Pageable pageable);
 
-    @Query("select b " +
-            "from Booking as b " +
-            "where b.item.owner.id = ?1 " +
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 " +
             "AND b.start < ?2 AND b.end > ?2 " +
             "order by b.start desc ")
-    Page<Booking> findAllBookingsForStateCurrentForOwner(long userId, LocalDateTime time, Pageable pageable);
+    List<BookingRow> findAllBookingsForStateCurrentForOwner(long userId, LocalDateTime time, Pageable pageable);
 
-    Page<Booking>  findByItem_Owner_IdAndEndIsBefore(Long ownerId, LocalDateTime time, Pageable pageable);
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.end < ?2 ")
+    List<BookingRow> findByItem_Owner_IdAndEndIsBefore(Long ownerId, LocalDateTime time, Pageable pageable);
 
-    Page<Booking> findByItem_Owner_IdAndStartIsAfter(Long ownerId, LocalDateTime time, Pageable pageable);
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.start > ?2 ")
+    List<BookingRow> findByItem_Owner_IdAndStartIsAfter(Long ownerId, LocalDateTime time, Pageable pageable);
 
-    Page<Booking> findByItem_Owner_IdAndStatus(Long ownerId, Status status, Pageable pageable);
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.status = ?2 ")
+    List<BookingRow> findByItem_Owner_IdAndStatus(Long ownerId, Status status, Pageable pageable);
 
-    @Query("select b " +
+    //общее количество для includeTotal=true, выполняется только по запросу клиента
+
+    @Query("select count(b) " +
             "from Booking b " +
-            "where b.item.id = ?1 " +
-            "and b.start < ?2 and b.status = 'APPROVED' " +
-            "order by b.start desc ")
-    List<Booking> findAllBookingByItemIdForLastBooking(long itemId, LocalDateTime time);
+            "where b.booker.id = ?1 ")
+    long countByBooker_Id(long bookerId);
 
-    @Query("select b " +
+    @Query("select count(b) " +
             "from Booking b " +
-            "where b.item.id = ?1 " +
-            "and b.start > ?2 " +
-            "order by b.start asc ")
-    List<Booking> findAllBookingByItemIdForNextBooking(long itemId, LocalDateTime time);
+            "where b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2 ")
+    long countAllBookingsForStateCurrent(long userId, LocalDateTime time);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.booker.id = ?1 AND b.end < ?2 ")
+    long countByBooker_IdAndEndIsBefore(long bookerId, LocalDateTime time);
 
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.booker.id = ?1 AND b.start > ?2 ")
+    long countByBooker_IdAndStartIsAfter(long bookerId, LocalDateTime time);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.booker.id = ?1 AND b.status = ?2 ")
+    long countByBooker_IdAndStatus(long bookerId, Status status);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 ")
+    long countByItem_Owner_Id(long ownerId);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 AND b.start < ?2 AND b.end > ?2 ")
+    long countAllBookingsForStateCurrentForOwner(long userId, LocalDateTime time);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 AND b.end < ?2 ")
+    long countByItem_Owner_IdAndEndIsBefore(long ownerId, LocalDateTime time);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 AND b.start > ?2 ")
+    long countByItem_Owner_IdAndStartIsAfter(long ownerId, LocalDateTime time);
+
+    @Query("select count(b) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 AND b.status = ?2 ")
+    long countByItem_Owner_IdAndStatus(long ownerId, Status status);
+
+    //даты, которые занимают ожидающие и подтвержденные бронирования вещи
+    @Query("select b.id as id, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status in ?2 ")
+    List<BookingIntervalView> findIntervalsByItemId(long itemId, List<Status> statuses);
+
+    //есть ли у пользователя завершенное подтвержденное бронирование вещи
+    @Query(value = "select exists(select 1 from bookings b " +
+            "where b.booker_id = ?1 and b.item_id = ?2 and b.status = 'APPROVED' and b.end_date < ?3)", nativeQuery = true)
+    boolean existsPastApprovedBooking(long bookerId, long itemId, LocalDateTime time);
+
+    //порционная выборка всех бронирований пользователя по возрастанию id
     @Query("select b " +
             "from Booking b " +
-            "where b.booker.id = ?1 ")
-    List<Booking> findAllBookingByUserId(long userId);
+            "join fetch b.item i " +
+            "join fetch i.owner " +
+            "join fetch b.booker " +
+            "left join fetch i.itemRequest r " +
+            "left join fetch r.requestor " +
+            "where b.booker.id = ?1 AND b.id > ?2 " +
+            "order by b.id asc ")
+    List<Booking> findAllBookingByUserIdAfter(long userId, long afterId, Pageable pageable);
+
+    //последнее и следующее бронирование сразу для всех вещей страницы
+    @Query(value = "select t.item_id as itemId, t.booking_id as id, t.start_date as startDate, t.end_date as endDate, " +
+            "t.booker_id as bookerId, t.status as status, t.kind as kind " +
+            "from (select b.*, 'LAST' as kind, " +
+            "row_number() over (partition by b.item_id order by b.start_date desc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) and b.start_date < ?2 and b.status = 'APPROVED' " +
+            "union all " +
+            "select b.*, 'NEXT' as kind, " +
+            "row_number() over (partition by b.item_id order by b.start_date asc) as rn " +
+            "from bookings b " +
+            "where b.item_id in (?1) and b.start_date > ?2) t " +
+            "where t.rn = 1", nativeQuery = true)
+    List<BookingForItemView> findLastAndNextBookingsByItemIds(List<Long> itemIds, LocalDateTime time);
+
+    //постраничная выдача по курсору (start, id) без offset и count, тоже строками BookingRow
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 " +
+            "AND b.start <= ?2 AND (b.start < ?2 OR b.id < ?3) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByBooker(long bookerId, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByBookerCurrent(long bookerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.end < ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByBookerPast(long bookerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.start > ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByBookerFuture(long bookerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where b.booker.id = ?1 AND b.status = ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByBookerAndStatus(long bookerId, Status status, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 " +
+            "AND b.start <= ?2 AND (b.start < ?2 OR b.id < ?3) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByOwner(long ownerId, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.start < ?2 AND b.end > ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByOwnerCurrent(long ownerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.end < ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByOwnerPast(long ownerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.start > ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByOwnerFuture(long ownerId, LocalDateTime time, LocalDateTime afterStart, long afterId, Pageable pageable);
+
+    @Query(BOOKING_ROWS + "where i.owner.id = ?1 AND b.status = ?2 " +
+            "AND b.start <= ?3 AND (b.start < ?3 OR b.id < ?4) " +
+            SLICE_ORDER)
+    Slice<BookingRow> findSliceByOwnerAndStatus(long ownerId, Status status, LocalDateTime afterStart, long afterId, Pageable pageable);
 }
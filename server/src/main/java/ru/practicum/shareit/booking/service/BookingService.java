@@ -2,9 +2,11 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.State;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingService {
     BookingDto createBooking(BookingDtoIn bookingDtoIn, long userId);
@@ -13,9 +15,21 @@ public interface BookingService {
 
     List<BookingDto> getAllBookings(long userId);
 
+    Stream<BookingDto> exportAllBookings(long userId);
+
     BookingDto getBookingById(long bookingId, long userId);
 
+    String getBookingEtag(long bookingId, long userId);
+
     List<BookingDto> getAllBookingsByUserIdAndState(long userId, State state, Integer from, Integer size);
 
     List<BookingDto> getAllBookingsCurrentUser(long userId, State state, Integer from, Integer size);
+
+    long countBookingsByUserIdAndState(long userId, State state);
+
+    long countBookingsCurrentUser(long userId, State state);
+
+    BookingSliceDto getBookingsSliceByUserIdAndState(long userId, State state, String after, Integer size);
+
+    BookingSliceDto getBookingsSliceCurrentUser(long userId, State state, String after, Integer size);
 }
@@ -2,26 +2,38 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
+import ru.practicum.shareit.booking.dto.BookingVersionView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Slf4j
@@ -31,7 +43,14 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemViewCache itemViewCache;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemBookingLocks itemBookingLocks;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
     Sort sortDesc = Sort.by(Sort.Direction.DESC, "start");
+    static final int EXPORT_PAGE_SIZE = 500;
+    //exclusion_violation: ограничение bookings_no_overlap в Postgres
+    private static final String EXCLUSION_VIOLATION = "23P01";
 
     @Override
     public BookingDto createBooking(BookingDtoIn bookingDtoIn, long userId) {
@@ -46,130 +65,281 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = BookingDtoMapper.toBookingFromBookingIn(bookingDtoIn, user, item);
         booking.setStatus(Status.WAITING);
 
-        return BookingDtoMapper.toBookingDto(bookingRepository.save(booking));
+        //проверка и вставка под замком вещи, чтобы между ними не вклинилась чужая заявка на те же даты;
+        //несколько экземпляров сервера друг друга не видят, для них пересечения отсекает ограничение в Postgres
+        Booking savedBooking = itemBookingLocks.withItemLock(item.getId(), () -> {
+            requireNoOverlap(booking, 0);
+            try {
+                return bookingRepository.save(booking);
+            } catch (DataIntegrityViolationException e) {
+                throw overlapOr(e);
+            }
+        });
+        //следующее бронирование вещи учитывает и неподтвержденные
+        itemViewCache.evict(item.getId());
+        itemAvailabilityIndex.update(savedBooking);
+        return BookingDtoMapper.toBookingDto(savedBooking);
     }
 
+    //проверка и запись статуса не атомарны, поэтому запись условная: из одновременных подтверждений проходит одно,
+    //остальные перечитывают бронирование и получают StatusAlreadyApprovedException
     @Override
     public BookingDto updateBooking(long bookerId, Boolean approved, long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("user not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
         Booking receivedBooking = bookingRepository.findById(bookerId).orElseThrow();
         if (receivedBooking.getItem().getOwner().getId() != userId) {
             throw new IsNotOwnerException("Данный юзер не может изменить статус вещи так как не является ее владельцем");
         }
-        if (receivedBooking.getStatus().equals(Status.APPROVED) && approved) {
-            throw new StatusAlreadyApprovedException("Статус уже подтвержден");
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        while (true) {
+            if (receivedBooking.getStatus().equals(Status.APPROVED) && approved) {
+                throw new StatusAlreadyApprovedException("Статус уже подтвержден");
+            }
+            if (changeStatus(receivedBooking, status)) {
+                break;
+            }
+            receivedBooking = bookingRepository.findById(bookerId).orElseThrow();
         }
-        checkFromUpdateBooking(approved, receivedBooking);
-        return BookingDtoMapper.toBookingDto(bookingRepository.save(receivedBooking));
+        receivedBooking.setStatus(status);
+        receivedBooking.setVersion(receivedBooking.getVersion() + 1);
+        itemViewCache.evict(receivedBooking.getItem().getId());
+        itemAvailabilityIndex.update(receivedBooking);
+        return BookingDtoMapper.toBookingDto(receivedBooking);
     }
 
     @Override
     public List<BookingDto> getAllBookings(long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("user not exist"));
-        return bookingRepository.findAll().stream()
-                .filter(booking -> booking.getBooker().getId() == userId)
-                .map(BookingDtoMapper::toBookingDto)
+        return exportAllBookings(userId)
                 .collect(Collectors.toList());
     }
 
+    //бронирования читаются страницами по id, в памяти одновременно находится только одна страница
+    @Override
+    public Stream<BookingDto> exportAllBookings(long userId) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
+        Pageable page = PageRequest.of(0, EXPORT_PAGE_SIZE);
+        return Stream.iterate(bookingRepository.findAllBookingByUserIdAfter(userId, 0, page),
+                        bookings -> !bookings.isEmpty(),
+                        bookings -> bookings.size() < EXPORT_PAGE_SIZE ? List.of() :
+                                bookingRepository.findAllBookingByUserIdAfter(userId, bookings.get(bookings.size() - 1).getId(), page))
+                .flatMap(List::stream)
+                .map(BookingDtoMapper::toBookingDto);
+    }
+
     @Override
     public BookingDto getBookingById(long bookingId, long userId) {
         Booking receivedBooking = bookingRepository.findById(bookingId).orElseThrow(() -> new BookingNotExistException("booking not exist"));
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("user not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
         if (receivedBooking.getBooker().getId() == userId || receivedBooking.getItem().getOwner().getId() == userId) {
             return BookingDtoMapper.toBookingDto(receivedBooking);//либо в первом условии сравнить с bookerId
         }
         throw new IsNotOwnerException("У данного юзера нет вещей");
     }
 
+    //бронирование видят только арендатор и владелец, остальным ошибку вернет getBookingById
     @Override
+    public String getBookingEtag(long bookingId, long userId) {
+        return bookingRepository.findVersionsById(bookingId)
+                .filter(versions -> versions.getBookerId() == userId || versions.getOwnerId() == userId)
+                .map(BookingVersionView::toEtag)
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> getAllBookingsByUserIdAndState(long userId, State state, Integer from, Integer size) {
         return getBookingsByState(userId, state, from, size);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingDto> getAllBookingsCurrentUser(long userId, State state, Integer from, Integer size) {
         return getBookingsByStateForOwner(userId, state, from, size);
     }
 
+    @Override
+    public long countBookingsByUserIdAndState(long userId, State state) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case WAITING:
+                return bookingRepository.countByBooker_IdAndStatus(userId, Status.WAITING);
+            case REJECTED:
+                return bookingRepository.countByBooker_IdAndStatus(userId, Status.REJECTED);
+            case CURRENT:
+                return bookingRepository.countAllBookingsForStateCurrent(userId, now);
+            case PAST:
+                return bookingRepository.countByBooker_IdAndEndIsBefore(userId, now);
+            case FUTURE:
+                return bookingRepository.countByBooker_IdAndStartIsAfter(userId, now);
+            default:
+                return bookingRepository.countByBooker_Id(userId);
+        }
+    }
+
+    @Override
+    public long countBookingsCurrentUser(long userId, State state) {
+        LocalDateTime now = LocalDateTime.now();
+        switch (state) {
+            case WAITING:
+                return bookingRepository.countByItem_Owner_IdAndStatus(userId, Status.WAITING);
+            case REJECTED:
+                return bookingRepository.countByItem_Owner_IdAndStatus(userId, Status.REJECTED);
+            case CURRENT:
+                return bookingRepository.countAllBookingsForStateCurrentForOwner(userId, now);
+            case PAST:
+                return bookingRepository.countByItem_Owner_IdAndEndIsBefore(userId, now);
+            case FUTURE:
+                return bookingRepository.countByItem_Owner_IdAndStartIsAfter(userId, now);
+            default:
+                return bookingRepository.countByItem_Owner_Id(userId);
+        }
+    }
+
+    @Override
+    public BookingSliceDto getBookingsSliceByUserIdAndState(long userId, State state, String after, Integer size) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
+        BookingCursor cursor = BookingCursor.decode(after);
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (state) {
+            case WAITING:
+                return toBookingSliceDto(bookingRepository.findSliceByBookerAndStatus(userId, Status.WAITING,
+                        cursor.getStart(), cursor.getId(), page));
+            case REJECTED:
+                return toBookingSliceDto(bookingRepository.findSliceByBookerAndStatus(userId, Status.REJECTED,
+                        cursor.getStart(), cursor.getId(), page));
+            case CURRENT:
+                return toBookingSliceDto(bookingRepository.findSliceByBookerCurrent(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            case PAST:
+                return toBookingSliceDto(bookingRepository.findSliceByBookerPast(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            case FUTURE:
+                return toBookingSliceDto(bookingRepository.findSliceByBookerFuture(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            default:
+                return toBookingSliceDto(bookingRepository.findSliceByBooker(userId,
+                        cursor.getStart(), cursor.getId(), page));
+        }
+    }
+
+    @Override
+    public BookingSliceDto getBookingsSliceCurrentUser(long userId, State state, String after, Integer size) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
+        BookingCursor cursor = BookingCursor.decode(after);
+        Pageable page = PageRequest.of(0, size);
+        LocalDateTime now = LocalDateTime.now();
 
-    private void checkFromUpdateBooking(Boolean approved, Booking booking) {
-        if (approved) {
-            booking.setStatus(Status.APPROVED);
-        } else {
-            booking.setStatus(Status.REJECTED);
+        switch (state) {
+            case WAITING:
+                return toBookingSliceDto(bookingRepository.findSliceByOwnerAndStatus(userId, Status.WAITING,
+                        cursor.getStart(), cursor.getId(), page));
+            case REJECTED:
+                return toBookingSliceDto(bookingRepository.findSliceByOwnerAndStatus(userId, Status.REJECTED,
+                        cursor.getStart(), cursor.getId(), page));
+            case CURRENT:
+                return toBookingSliceDto(bookingRepository.findSliceByOwnerCurrent(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            case PAST:
+                return toBookingSliceDto(bookingRepository.findSliceByOwnerPast(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            case FUTURE:
+                return toBookingSliceDto(bookingRepository.findSliceByOwnerFuture(userId, now,
+                        cursor.getStart(), cursor.getId(), page));
+            default:
+                return toBookingSliceDto(bookingRepository.findSliceByOwner(userId,
+                        cursor.getStart(), cursor.getId(), page));
         }
     }
 
+
+    //отклоненное бронирование при подтверждении снова занимает даты и проверяется как новое
+    private boolean changeStatus(Booking booking, Status status) {
+        if (booking.getStatus() != Status.REJECTED || status == Status.REJECTED) {
+            return bookingRepository.updateStatus(booking.getId(), booking.getStatus(), status) == 1;
+        }
+        return itemBookingLocks.withItemLock(booking.getItem().getId(), () -> {
+            requireNoOverlap(booking, booking.getId());
+            try {
+                return bookingRepository.updateStatus(booking.getId(), booking.getStatus(), status) == 1;
+            } catch (DataIntegrityViolationException e) {
+                throw overlapOr(e);
+            }
+        });
+    }
+
+    private void requireNoOverlap(Booking booking, long exceptBookingId) {
+        if (bookingRepository.existsOverlapping(booking.getItem().getId(), booking.getStart(), booking.getEnd(), exceptBookingId)) {
+            throw new BookingOverlapException("Вещь " + booking.getItem().getId() + " уже забронирована с "
+                    + booking.getStart() + " по " + booking.getEnd());
+        }
+    }
+
+    private static RuntimeException overlapOr(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+                return new BookingOverlapException(cause.getMessage());
+            }
+        }
+        return e;
+    }
+
+    private BookingSliceDto toBookingSliceDto(Slice<BookingRow> slice) {
+        List<BookingRow> rows = slice.getContent();
+        String next = slice.hasNext() ? BookingCursor.of(rows.get(rows.size() - 1)).encode() : null;
+        return BookingSliceDto.builder()
+                .content(BookingDtoMapper.toBookingDtos(rows))
+                .hasNext(slice.hasNext())
+                .next(next)
+                .build();
+    }
+
     private List<BookingDto> getBookingsByState(long userId, State state, Integer from, Integer size) {
         Pageable page = PageRequest.of(from / size, size, sortDesc);
 
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("user not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
 
         if (state.equals(State.WAITING)) {
-            return bookingRepository.findByBooker_IdAndStatus(userId, Status.WAITING, page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByBooker_IdAndStatus(userId, Status.WAITING, page));
         }
         if (state.equals(State.CURRENT)) {
-            return bookingRepository.findAllBookingsForStateCurrent(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findAllBookingsForStateCurrent(userId, LocalDateTime.now(), page));
         }
         if (state.equals(State.PAST)) {
-            return bookingRepository.findByBooker_IdAndEndIsBefore(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByBooker_IdAndEndIsBefore(userId, LocalDateTime.now(), page));
         }
         if (state.equals(State.REJECTED)) {
-            return bookingRepository.findByBooker_IdAndStatus(userId, Status.REJECTED, page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByBooker_IdAndStatus(userId, Status.REJECTED, page));
         }
         if (state.equals(State.FUTURE)) {
-            return bookingRepository.findByBooker_IdAndStartIsAfter(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByBooker_IdAndStartIsAfter(userId, LocalDateTime.now(), page));
         }
 
-        return bookingRepository.findByBooker_Id(userId, page).stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return BookingDtoMapper.toBookingDtos(bookingRepository.findByBooker_Id(userId, page));
 
     }
 
     private List<BookingDto> getBookingsByStateForOwner(long userId, State state, Integer from, Integer size) {
         Pageable page = PageRequest.of(from / size, size, sortDesc);
 
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("user not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("user not exist"));
 
         if (state.equals(State.WAITING)) {
-            return bookingRepository.findByItem_Owner_IdAndStatus(userId, Status.WAITING, page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByItem_Owner_IdAndStatus(userId, Status.WAITING, page));
         }
         if (state.equals(State.CURRENT)) {
-            return bookingRepository.findAllBookingsForStateCurrentForOwner(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findAllBookingsForStateCurrentForOwner(userId, LocalDateTime.now(), page));
         }
         if (state.equals(State.PAST)) {
-            return bookingRepository.findByItem_Owner_IdAndEndIsBefore(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByItem_Owner_IdAndEndIsBefore(userId, LocalDateTime.now(), page));
         }
         if (state.equals(State.REJECTED)) {
-            return bookingRepository.findByItem_Owner_IdAndStatus(userId, Status.REJECTED, page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByItem_Owner_IdAndStatus(userId, Status.REJECTED, page));
         }
         if (state.equals(State.FUTURE)) {
-            return bookingRepository.findByItem_Owner_IdAndStartIsAfter(userId, LocalDateTime.now(), page).stream()
-                    .map(BookingDtoMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return BookingDtoMapper.toBookingDtos(bookingRepository.findByItem_Owner_IdAndStartIsAfter(userId, LocalDateTime.now(), page));
         }
-        return bookingRepository.findByItem_Owner_Id(userId, page).stream()
-                .map(BookingDtoMapper::toBookingDto)
-                .collect(Collectors.toList());
+        return BookingDtoMapper.toBookingDtos(bookingRepository.findByItem_Owner_Id(userId, page));
     }
 }
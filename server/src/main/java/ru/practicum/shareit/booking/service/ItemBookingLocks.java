@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+//замки по вещам для проверки пересечений бронирований: заявки на одну вещь идут по очереди,
+//на разные вещи почти никогда не делят замок; ReentrantLock не закрепляет виртуальный поток за носителем
+@Component
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+
+    public ItemBookingLocks(@Value("${shareit.booking.lock-stripes:1024}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withItemLock(long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(Long.hashCode(itemId), stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//регионы кэша второго уровня Hibernate: shareit.cache.second-level.regions.<регион>.maximum-size / ttl
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.cache.second-level")
+public class SecondLevelCacheProperties {
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private long maximumSize = 10000;
+        private Duration ttl;
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.dto;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -62,6 +63,19 @@ public class ErrorHandler {
         return new ErrorResponse("Вещь нельзя забронировать", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleBookingOverlapException(final BookingOverlapException e) {
+        return new ErrorResponse("Вещь уже забронирована на эти даты", e.getMessage());
+    }
+
+    //параллельный запрос успел изменить ту же строку, клиент может перечитать ее и повторить изменение
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailure(final OptimisticLockingFailureException e) {
+        return new ErrorResponse("Объект изменен параллельным запросом", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleStatusAlreadyException(final StatusAlreadyApprovedException e) {
@@ -74,6 +88,12 @@ public class ErrorHandler {
         return new ErrorResponse("last booking not exist", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidCursorException(final InvalidCursorException e) {
+        return new ErrorResponse("Некорректный курсор", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponseUnsupp handleUnsupported(final UnsupportedStatusExist e) {
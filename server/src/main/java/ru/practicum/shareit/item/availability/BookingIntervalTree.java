@@ -0,0 +1,207 @@
+package ru.practicum.shareit.item.availability;
+
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//бронирования одной вещи в AVL-дереве по началу, узел хранит наибольший конец в своем поддереве
+//бронирования вещи не пересекаются, поэтому поиск по периоду проходит один путь и k найденных узлов: O(log n + k)
+class BookingIntervalTree {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node root;
+
+    void add(long bookingId, LocalDateTime start, LocalDateTime end) {
+        lock.writeLock().lock();
+        try {
+            Node old = nodes.remove(bookingId);
+            if (old != null) {
+                root = delete(root, old);
+            }
+            Node node = new Node(bookingId, start, end);
+            root = insert(root, node);
+            nodes.put(bookingId, node);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long bookingId) {
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.remove(bookingId);
+            if (node != null) {
+                root = delete(root, node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //свободные промежутки периода [from, to) между бронированиями
+    List<FreeSlotDto> freeSlots(LocalDateTime from, LocalDateTime to) {
+        List<Node> busy = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            collectOverlapping(root, from, to, busy);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<FreeSlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Node node : busy) {
+            if (node.start.isAfter(cursor)) {
+                slots.add(new FreeSlotDto(cursor, node.start));
+            }
+            if (node.end.isAfter(cursor)) {
+                cursor = node.end;
+            }
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new FreeSlotDto(cursor, to));
+        }
+        return slots;
+    }
+
+    //обход по возрастанию начала: поддеревья, где все закончилось до from, и узлы с началом не раньше to пропускаются
+    private static void collectOverlapping(Node node, LocalDateTime from, LocalDateTime to, List<Node> result) {
+        if (node == null || !node.maxEnd.isAfter(from)) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (!node.start.isBefore(to)) {
+            return;
+        }
+        if (node.end.isAfter(from)) {
+            result.add(node);
+        }
+        collectOverlapping(node.right, from, to, result);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, Node deleted) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(deleted, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, deleted);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, deleted);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = delete(node.right, successor);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private static int compare(Node a, Node b) {
+        int cmp = a.start.compareTo(b.start);
+        return cmp != 0 ? cmp : Long.compare(a.bookingId, b.bookingId);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final long bookingId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(long bookingId, LocalDateTime start, LocalDateTime end) {
+            this.bookingId = bookingId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.item.availability;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//деревья бронирований по вещам для GET /items/{id}/availability: строятся при первом запросе вещи,
+//дальше BookingService дополняет их при создании бронирования и смене статуса
+//бронирования с других экземпляров сервера сюда не попадают, поэтому дерево живет ограниченное время и строится заново
+@Component
+public class ItemAvailabilityIndex {
+    public static final String CACHE_NAME = "itemAvailability";
+    private static final List<Status> BUSY = List.of(Status.WAITING, Status.APPROVED);
+    private static final int CHANGE_STRIPES = 1024;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, BookingIntervalTree> trees;
+    private final AtomicLongArray changes = new AtomicLongArray(CHANGE_STRIPES);
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository, MeterRegistry meterRegistry,
+                                 @Value("${shareit.cache.item-availability.maximum-size:10000}") long maximumSize,
+                                 @Value("${shareit.cache.item-availability.ttl:5m}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        trees = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, trees, CACHE_NAME);
+    }
+
+    public List<FreeSlotDto> freeSlots(long itemId, LocalDateTime from, LocalDateTime to) {
+        return tree(itemId).freeSlots(from, to);
+    }
+
+    //бронирование занимает даты, пока ожидает подтверждения или подтверждено
+    public void update(Booking booking) {
+        long itemId = booking.getItem().getId();
+        changes.incrementAndGet(stripe(itemId));
+        BookingIntervalTree tree = trees.getIfPresent(itemId);
+        if (tree == null) {
+            return;
+        }
+        if (BUSY.contains(booking.getStatus())) {
+            tree.add(booking.getId(), booking.getStart(), booking.getEnd());
+        } else {
+            tree.remove(booking.getId());
+        }
+    }
+
+    //загрузка вне trees.get по той же причине, что и в ItemViewCache
+    //дерево кладется до повторной проверки: изменение после нее найдет дерево в кэше, до нее - уберет недостроенное
+    private BookingIntervalTree tree(long itemId) {
+        BookingIntervalTree tree = trees.getIfPresent(itemId);
+        if (tree != null) {
+            return tree;
+        }
+        long changesBefore = changes.get(stripe(itemId));
+        tree = new BookingIntervalTree();
+        for (BookingIntervalView interval : bookingRepository.findIntervalsByItemId(itemId, BUSY)) {
+            tree.add(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        BookingIntervalTree cached = trees.asMap().putIfAbsent(itemId, tree);
+        if (cached != null) {
+            return cached;
+        }
+        if (changes.get(stripe(itemId)) != changesBefore) {
+            trees.asMap().remove(itemId, tree);
+        }
+        return tree;
+    }
+
+    private static int stripe(long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), CHANGE_STRIPES);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.cache;
+
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+//карточка вещи в кэше: сама вещь с комментариями и бронирования, которые видит только владелец
+@Getter
+public class CachedItemView {
+    private final ItemDto item;
+    private final long ownerId;
+    private final BookingDtoForItem lastBooking;
+    private final BookingDtoForItem nextBooking;
+    //ETag считается один раз при загрузке по содержимому карточки: запись сбрасывается при любом ее изменении
+    private final String etag;
+    private final String ownerEtag;
+
+    public CachedItemView(ItemDto item, long ownerId, BookingDtoForItem lastBooking, BookingDtoForItem nextBooking) {
+        this.item = item;
+        this.ownerId = ownerId;
+        this.lastBooking = lastBooking;
+        this.nextBooking = nextBooking;
+        String itemContent = item.toString();
+        etag = "i" + md5(itemContent);
+        ownerEtag = "o" + md5(itemContent + lastBooking + nextBooking);
+    }
+
+    public String getEtag(long userId) {
+        return ownerId == userId ? ownerEtag : etag;
+    }
+
+    //ItemDto изменяемый, поэтому наружу отдается копия
+    public ItemDto toItemDto(long userId) {
+        ItemDto itemDto = ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .comments(new ArrayList<>(item.getComments()))
+                .requestId(item.getRequestId())
+                .build();
+        if (ownerId == userId && lastBooking != null) {
+            itemDto.setLastBooking(lastBooking);
+            itemDto.setNextBooking(nextBooking);
+        }
+        return itemDto;
+    }
+
+    private static String md5(String content) {
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
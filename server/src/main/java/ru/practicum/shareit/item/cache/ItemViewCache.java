@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+//кэш карточек GET /items/{id}, сбрасывается сервисами при изменении вещи, комментариев и бронирований
+@Component
+public class ItemViewCache {
+    public static final String CACHE_NAME = "itemView";
+
+    private final Cache<Long, CachedItemView> cache;
+    //id -> метка идущей загрузки; сброс убирает метку только своей вещи, загрузки других вещей не теряются
+    private final ConcurrentMap<Long, Object> loads = new ConcurrentHashMap<>();
+
+    public ItemViewCache(MeterRegistry meterRegistry,
+                         @Value("${shareit.cache.item-view.maximum-size:10000}") long maximumSize,
+                         @Value("${shareit.cache.item-view.ttl:5m}") Duration ttl) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ItemViewExpiry(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    //загрузка из базы вне cache.get: тот держит монитор ConcurrentHashMap и закрепил бы виртуальный поток за носителем
+    //карточку, загруженную во время сброса этой вещи, убираем: она могла прочитать старые данные
+    //карточка кладется до снятия метки: сброс после снятия найдет и удалит карточку сам, до него - удалим мы
+    //параллельная загрузка той же вещи тоже снимает чужую метку, тогда карточка просто не останется в кэше
+    public CachedItemView get(long itemId, Function<Long, CachedItemView> loader) {
+        CachedItemView view = cache.getIfPresent(itemId);
+        if (view != null) {
+            return view;
+        }
+        Object load = new Object();
+        loads.put(itemId, load);
+        CachedItemView cached;
+        boolean evicted;
+        try {
+            view = loader.apply(itemId);
+            cached = cache.asMap().putIfAbsent(itemId, view);
+        } finally {
+            evicted = !loads.remove(itemId, load);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        if (evicted) {
+            cache.asMap().remove(itemId, view);
+        }
+        return view;
+    }
+
+    public void evict(long itemId) {
+        loads.remove(itemId);
+        cache.invalidate(itemId);
+    }
+
+    //с началом следующего бронирования меняются и последнее, и следующее, поэтому запись живет не дольше
+    private static class ItemViewExpiry implements Expiry<Long, CachedItemView> {
+        private final Duration ttl;
+
+        ItemViewExpiry(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        @Override
+        public long expireAfterCreate(Long itemId, CachedItemView view, long currentTime) {
+            if (view.getNextBooking() == null) {
+                return ttl.toNanos();
+            }
+            Duration untilNext = Duration.between(LocalDateTime.now(), view.getNextBooking().getStart());
+            if (untilNext.isNegative()) {
+                return 0;
+            }
+            return untilNext.compareTo(ttl) < 0 ? untilNext.toNanos() : ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, CachedItemView view, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, view, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, CachedItemView view, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
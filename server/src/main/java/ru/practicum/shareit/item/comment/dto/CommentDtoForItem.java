@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.comment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+//комментарий вместе с идентификатором вещи, чтобы разложить выборку по вещам страницы
+@Getter
+@AllArgsConstructor
+public class CommentDtoForItem {
+    private Long itemId;
+    private Long id;
+    private String text;
+    private String authorName;
+    private LocalDateTime created;
+}
@@ -14,4 +14,12 @@ public class CommentDtoMapper {
                 );
     }
 
+    public static CommentDto toCommentDto(CommentDtoForItem comment) {
+        return new CommentDto(comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated()
+        );
+    }
+
 }
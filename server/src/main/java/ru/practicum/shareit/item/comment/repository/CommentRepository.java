@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item.comment.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.comment.dto.CommentDtoForItem;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
@@ -10,4 +12,21 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findAllByItem(Item item);
+
+    @Query("select c " +
+            "from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id in ?1 ")
+    List<Comment> findAllByItemIds(List<Long> itemIds);
+
+    @Query("select new ru.practicum.shareit.item.comment.dto.CommentDtoForItem(c.item.id, c.id, c.text, a.name, c.created) " +
+            "from Comment c " +
+            "join c.author a " +
+            "where c.item.id in ?1 ")
+    List<CommentDtoForItem> findDtosByItemIds(List<Long> itemIds);
+
+    @Query("select distinct c.item.id " +
+            "from Comment c " +
+            "where c.author.id = ?1 ")
+    List<Long> findItemIdsByAuthorId(long authorId);
 }
@@ -1,13 +1,24 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
 import ru.practicum.shareit.item.comment.service.CommentService;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -18,6 +29,8 @@ public class ItemController {
 
     private final ItemService itemService;
     private final CommentService commentService;
+    private final ItemImporter itemImporter;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
     @PostMapping
     public ItemDto createItem(@RequestBody ItemDto itemDto,
@@ -26,6 +39,22 @@ public class ItemController {
         return itemService.createItem(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<ItemDto> createItems(@RequestBody List<ItemDto> itemDtos,
+                                     @RequestHeader(value = "X-Sharer-User-Id") long userId
+    ) {
+        return itemService.createItems(itemDtos, userId);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                             @RequestParam(required = false, defaultValue = "1") int firstLine,
+                                                             HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8))
+                .body(itemImporter.importItems(request.getInputStream(), userId, firstLine));
+    }
+
     @PatchMapping("/{id}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
                               @PathVariable long id,
@@ -35,27 +64,56 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam String text,
-                                     @RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                     @RequestParam(required = false, defaultValue = "0") Integer from,
-                                     @RequestParam(required = false, defaultValue = "10")  Integer size) {
-        return itemService.searchItemsWithPagination(text, userId, from, size);
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text,
+                                                     @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                     @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                     @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                                     @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        List<ItemDto> items = itemService.searchItemsWithPagination(text, userId, from, size);
+        if (!includeTotal) {
+            return ResponseEntity.ok(items);
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(itemService.countSearchItems(text)))
+                .body(items);
     }
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                     @RequestParam(required = false, defaultValue = "0") Integer from,
-                                     @RequestParam(required = false, defaultValue = "10")  Integer size) {
-        return itemService.getAllItemWithPagination(userId, from, size);
+    public ResponseEntity<List<ItemDto>> getAllItems(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                     @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                     @RequestParam(required = false, defaultValue = "10")  Integer size,
+                                                     @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        List<ItemDto> items = itemService.getAllItemWithPagination(userId, from, size);
+        if (!includeTotal) {
+            return ResponseEntity.ok(items);
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(itemService.countAllItem(userId)))
+                .body(items);
     }
 
+    //ETag берется раньше карточки: если между ними запись сбросят, карточка будет новее ETag, а не наоборот
     @GetMapping("/{id}")
     public ItemDto getItemById(@PathVariable long id,
-                               @RequestHeader(value = "X-Sharer-User-Id") long userId
+                               @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                               WebRequest request
     ) {
+        if (request.checkNotModified(itemService.getItemEtag(id, userId))) {
+            return null;
+        }
         return itemService.getItemById(id, userId);
     }
 
+    //свободные промежутки между ожидающими и подтвержденными бронированиями вещи внутри [from, to)
+    @GetMapping("/{id}/availability")
+    public List<FreeSlotDto> getItemAvailability(@PathVariable long id,
+                                                 @RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return itemService.getItemAvailability(id, userId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto createComment(@PathVariable long itemId,
                                     @RequestBody CommentDtoIn commentDtoIn,
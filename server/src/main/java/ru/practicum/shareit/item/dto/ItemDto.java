@@ -25,4 +25,12 @@ public class ItemDto {
 
     public ItemDto(int id, String name, String description, boolean available) {
     }
+
+    public ItemDto(Long id, String name, String description, Boolean available, Long requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.requestId = requestId;
+    }
 }
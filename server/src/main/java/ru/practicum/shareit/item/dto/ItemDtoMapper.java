@@ -2,7 +2,6 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
-import ru.practicum.shareit.booking.dto.BookingDtoForItem;
 import ru.practicum.shareit.item.comment.dto.CommentDtoMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -30,26 +29,15 @@ public class ItemDtoMapper {
         );
     }
 
-    public static ItemDto toItemDtoWithBooking(Item item, BookingDtoForItem lastBooking, BookingDtoForItem nextBooking, List<Comment> comments) {
-        return new ItemDto(item.getId(),
-                item.getName(),
-                item.getDescription(),
-                item.getAvailable(),
-                lastBooking,
-                nextBooking,
-                comments.stream().map(CommentDtoMapper::toCommentDto).collect(Collectors.toList()),
-                null
-        );
-    }
-
     public static Item toItem(ItemDto itemDto, User owner, ItemRequest itemRequest) {
-        return new Item(itemDto.getId(),
-                itemDto.getName(),
-                itemDto.getDescription(),
-                itemDto.getAvailable(),
-                owner,
-                itemRequest
-        );
+        return Item.builder()
+                .id(itemDto.getId())
+                .name(itemDto.getName())
+                .description(itemDto.getDescription())
+                .available(itemDto.getAvailable())
+                .owner(owner)
+                .itemRequest(itemRequest)
+                .build();
     }
 
     public static ItemDtoForItemRequest toItemDtoFroRequest(ItemDto itemDto) {
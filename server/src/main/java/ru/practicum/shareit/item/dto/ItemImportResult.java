@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemImportResult {
+    private int line;
+    private Long id;
+    private String error;
+
+    public static ItemImportResult created(int line, long id) {
+        return new ItemImportResult(line, id, null);
+    }
+
+    public static ItemImportResult failed(int line, String error) {
+        return new ItemImportResult(line, null, error);
+    }
+}
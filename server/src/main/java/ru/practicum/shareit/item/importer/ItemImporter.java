@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item.importer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+//импорт вещей из NDJSON: одна строка - одна вещь, тело читается построчно и сохраняется пачками,
+//поэтому в памяти одновременно не больше CHUNK_SIZE строк независимо от размера загрузки
+@Component
+@Slf4j
+public class ItemImporter {
+    public static final int CHUNK_SIZE = 500;
+
+    private final ItemService itemService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader itemReader;
+    private final int maxLineLength;
+
+    public ItemImporter(ItemService itemService, ItemRequestRepository itemRequestRepository,
+                        UserExistenceCache userExistenceCache, ObjectMapper objectMapper,
+                        @Value("${shareit.import.max-line-length:65536}") int maxLineLength) {
+        this.itemService = itemService;
+        this.itemRequestRepository = itemRequestRepository;
+        this.userExistenceCache = userExistenceCache;
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(ItemDto.class);
+        this.maxLineLength = maxLineLength;
+    }
+
+    //владелец проверяется сразу, чтобы ответить 404 до начала потоковой записи результатов
+    //firstLine - номер первой строки тела, шлюз передает его при пересылке загрузки частями
+    public StreamingResponseBody importItems(InputStream body, long userId, int firstLine) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("User not exist"));
+        return outputStream -> {
+            NdjsonLineReader reader = new NdjsonLineReader(body, maxLineLength);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                //строки NDJSON разделяются переводом строки, а не пробелом по умолчанию
+                generator.setRootValueSeparator(null);
+                List<ImportLine> chunk = new ArrayList<>(CHUNK_SIZE);
+                int lineNumber = firstLine - 1;
+                int created = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() && !reader.isTooLong()) {
+                        continue;
+                    }
+                    //ответ уже пишется потоком, поэтому слишком длинная строка отклоняется как и прочие ошибки строки
+                    chunk.add(reader.isTooLong()
+                            ? new ImportLine(lineNumber, null, "Строка длиннее " + maxLineLength + " символов")
+                            : parse(lineNumber, line));
+                    if (chunk.size() == CHUNK_SIZE) {
+                        created += saveChunk(chunk, userId, generator);
+                        chunk.clear();
+                    }
+                }
+                created += saveChunk(chunk, userId, generator);
+                log.info("Импорт вещей юзера " + userId + ": создано " + created);
+            }
+        };
+    }
+
+    private ImportLine parse(int lineNumber, String line) {
+        ItemDto itemDto;
+        try {
+            itemDto = itemReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return new ImportLine(lineNumber, null, "Некорректный JSON");
+        }
+        if (itemDto.getName() == null || itemDto.getName().isBlank() ||
+                itemDto.getDescription() == null || itemDto.getDescription().isBlank() ||
+                itemDto.getAvailable() == null) {
+            return new ImportLine(lineNumber, null, "Не заполнены name, description или available");
+        }
+        return new ImportLine(lineNumber, itemDto, null);
+    }
+
+    //результаты пишутся в порядке строк, ошибки строк пачки выводятся вместе с сохраненными вещами
+    private int saveChunk(List<ImportLine> chunk, long userId, JsonGenerator generator) throws IOException {
+        rejectUnknownRequests(chunk);
+        List<ImportLine> valid = chunk.stream()
+                .filter(importLine -> importLine.error == null)
+                .collect(Collectors.toList());
+        if (!valid.isEmpty()) {
+            try {
+                List<ItemDto> saved = itemService.createItems(valid.stream()
+                        .map(importLine -> importLine.itemDto)
+                        .collect(Collectors.toList()), userId);
+                for (int i = 0; i < valid.size(); i++) {
+                    valid.get(i).id = saved.get(i).getId();
+                }
+            } catch (DataAccessException e) {
+                log.warn("Пачка импорта не сохранена", e);
+                valid.forEach(importLine -> importLine.error = "Не удалось сохранить");
+            }
+        }
+
+        for (ImportLine importLine : chunk) {
+            generator.writeObject(importLine.error == null
+                    ? ItemImportResult.created(importLine.line, importLine.id)
+                    : ItemImportResult.failed(importLine.line, importLine.error));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        return (int) chunk.stream().filter(importLine -> importLine.error == null).count();
+    }
+
+    private void rejectUnknownRequests(List<ImportLine> chunk) {
+        Set<Long> requestIds = chunk.stream()
+                .filter(importLine -> importLine.error == null)
+                .map(importLine -> importLine.itemDto.getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = itemRequestRepository.findAllById(requestIds).stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        for (ImportLine importLine : chunk) {
+            if (importLine.error == null && importLine.itemDto.getRequestId() != null
+                    && !existing.contains(importLine.itemDto.getRequestId())) {
+                importLine.error = "Запрос не найден";
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ImportLine {
+        private final int line;
+        private final ItemDto itemDto;
+        private String error;
+        private Long id;
+
+        ImportLine(int line, ItemDto itemDto, String error) {
+            this(line, itemDto);
+            this.error = error;
+        }
+    }
+}
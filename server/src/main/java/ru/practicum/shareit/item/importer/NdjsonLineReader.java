@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+//построчное чтение NDJSON с ограничением длины строки: BufferedReader.readLine копит строку целиком,
+//и одна строка без перевода строки заняла бы память на весь размер загрузки
+class NdjsonLineReader {
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean tooLong;
+
+    NdjsonLineReader(InputStream body, int maxLength) {
+        this.reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        this.maxLength = maxLength;
+    }
+
+    //строка без перевода строки или null в конце тела
+    //строка длиннее maxLength дочитывается без сохранения и возвращается пустой, isTooLong() для нее true
+    String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean read = false;
+        tooLong = false;
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit == -1) {
+                    limit = 0;
+                    return read ? finish(line) : null;
+                }
+            }
+            read = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            if (!tooLong) {
+                if (line.length() + position - start > maxLength + 1) {
+                    tooLong = true;
+                    line.setLength(0);
+                } else {
+                    line.append(buffer, start, position - start);
+                }
+            }
+            if (position < limit) {
+                position++;
+                return finish(line);
+            }
+        }
+    }
+
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    //перевод строки \r\n, как и в BufferedReader.readLine
+    private String finish(StringBuilder line) {
+        if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        if (line.length() > maxLength) {
+            tooLong = true;
+            return "";
+        }
+        return line.toString();
+    }
+}
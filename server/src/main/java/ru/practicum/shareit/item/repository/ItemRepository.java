@@ -1,33 +1,67 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoForItemRequest;
+import ru.practicum.shareit.item.dto.ItemSearchView;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')) AND i.available = true")
-    List<Item> searchItems(String text, long userId);
+    //вещь целиком попадает в BookingDto при создании бронирования
+    @Override
+    @EntityGraph(attributePaths = {"owner", "itemRequest.requestor"})
+    Optional<Item> findById(Long id);
 
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "owner-items")})
     @Query("select i " +
             "from Item i " +
             "where i.owner.id = ?1 " +
             "order by i.id asc ")
     List<Item> findAllByOwnerIdOrderBy(long ownerId);
 
-    Page<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+    //только поля ItemDto, бронирования и комментарии догружаются отдельно для всей страницы
+    @QueryHints({@QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "owner-items")})
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i " +
+            "left join i.itemRequest r " +
+            "where i.owner.id = ?1 ")
+    List<ItemDto> findAllByOwnerId(Long ownerId, Pageable pageable);
+
+    @Query("select count(i) " +
+            "from Item i " +
+            "where i.owner.id = ?1 ")
+    long countByOwnerId(long ownerId);
+
+    @EntityGraph(attributePaths = {"owner", "itemRequest"})
+    @Query("select i " +
+            "from Item i " +
+            "where i.id in ?1 ")
+    List<Item> findAllByIdIn(List<Long> ids);
 
-    @Query("select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%')) AND i.available = true")
-    Page<Item> searchItemsPageable(String text, Pageable pageable, long userId);
+    //порционная загрузка для поискового индекса, без сущностей и связей
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available " +
+            "from Item i " +
+            "where i.id > ?1 " +
+            "order by i.id asc ")
+    List<ItemSearchView> findForSearchIndex(long afterId, Pageable pageable);
 
+    //только поля для ответа на запрос, без загрузки владельца и самого запроса
+    @Query("select new ru.practicum.shareit.item.dto.ItemDtoForItemRequest(i.id, i.name, i.description, i.available, i.itemRequest.id) " +
+            "from Item i " +
+            "where i.itemRequest.id in ?1 " +
+            "order by i.id asc ")
+    List<ItemDtoForItemRequest> findAllForRequests(List<Long> requestIds);
 }
@@ -0,0 +1,284 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+//инвертированный индекс по словам названия и описания вещей, строится при первом поиске
+//слово запроса совпадает со словом вещи, если является его началом
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSearchIndex {
+    private static final int LOAD_CHUNK_SIZE = 1000;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int NAME_EXACT = 4;
+    private static final int NAME_PREFIX = 3;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> nameIndex = new TreeMap<>();
+    private final TreeMap<String, Postings> descriptionIndex = new TreeMap<>();
+    private final Map<Integer, IndexedItem> indexedItems = new HashMap<>();
+    private final BitSet available = new BitSet();
+    private volatile boolean loaded;
+
+    public List<Long> search(String text, long offset, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return score(text).entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(entry -> (long) entry.getKey())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(String text) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return score(text).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            put(Math.toIntExact(item.getId()), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //пакет вещей индексируется одной блокировкой и только после коммита, чтобы откат не оставил вещи в поиске
+    public void indexAll(List<Item> items) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    putAll(items);
+                }
+            });
+        } else {
+            putAll(items);
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(itemId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putAll(List<Item> items) {
+        lock.writeLock().lock();
+        try {
+            for (Item item : items) {
+                put(Math.toIntExact(item.getId()), item.getName(), item.getDescription(), Boolean.TRUE.equals(item.getAvailable()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long afterId = 0;
+            List<ItemSearchView> chunk;
+            do {
+                chunk = itemRepository.findForSearchIndex(afterId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+                for (ItemSearchView view : chunk) {
+                    put(Math.toIntExact(view.getId()), view.getName(), view.getDescription(), Boolean.TRUE.equals(view.getAvailable()));
+                    afterId = view.getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK_SIZE);
+            loaded = true;
+            log.info("Поисковый индекс построен, вещей в индексе: {}", indexedItems.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //вызывается под блокировкой на чтение
+    private Map<Integer, Integer> score(String text) {
+        List<String> queryTerms = tokenize(text);
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (queryTerms.isEmpty()) {
+            return scores;
+        }
+
+        boolean first = true;
+        for (String term : queryTerms) {
+            Map<Integer, Integer> termScores = new HashMap<>();
+            collect(nameIndex, term, NAME_EXACT, NAME_PREFIX, first ? null : scores, termScores);
+            collect(descriptionIndex, term, DESCRIPTION_EXACT, DESCRIPTION_PREFIX, first ? null : scores, termScores);
+            if (!first) {
+                for (Map.Entry<Integer, Integer> entry : termScores.entrySet()) {
+                    entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                }
+            }
+            scores = termScores;
+            first = false;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void collect(TreeMap<String, Postings> index, String term, int exactScore, int prefixScore,
+                         Map<Integer, Integer> candidates, Map<Integer, Integer> termScores) {
+        for (Map.Entry<String, Postings> entry : index.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            int score = entry.getKey().equals(term) ? exactScore : prefixScore;
+            Postings postings = entry.getValue();
+            for (int i = 0; i < postings.size; i++) {
+                int id = postings.ids[i];
+                if (available.get(id) && (candidates == null || candidates.containsKey(id))) {
+                    termScores.merge(id, score, Math::max);
+                }
+            }
+        }
+    }
+
+    private void put(int id, String name, String description, boolean isAvailable) {
+        removeInternal(id);
+        String[] nameTerms = addPostings(nameIndex, tokenize(name), id);
+        String[] descriptionTerms = addPostings(descriptionIndex, tokenize(description), id);
+        indexedItems.put(id, new IndexedItem(nameTerms, descriptionTerms));
+        available.set(id, isAvailable);
+    }
+
+    private void removeInternal(int id) {
+        IndexedItem indexedItem = indexedItems.remove(id);
+        if (indexedItem == null) {
+            return;
+        }
+        removePostings(nameIndex, indexedItem.nameTerms, id);
+        removePostings(descriptionIndex, indexedItem.descriptionTerms, id);
+        available.clear(id);
+    }
+
+    private static String[] addPostings(TreeMap<String, Postings> index, List<String> terms, int id) {
+        String[] storedTerms = new String[terms.size()];
+        for (int i = 0; i < storedTerms.length; i++) {
+            String term = terms.get(i);
+            Map.Entry<String, Postings> entry = index.ceilingEntry(term);
+            if (entry != null && entry.getKey().equals(term)) {
+                entry.getValue().add(id);
+                storedTerms[i] = entry.getKey(); // храним ключ словаря, а не копию строки
+            } else {
+                Postings postings = new Postings();
+                postings.add(id);
+                index.put(term, postings);
+                storedTerms[i] = term;
+            }
+        }
+        return storedTerms;
+    }
+
+    private static void removePostings(TreeMap<String, Postings> index, String[] terms, int id) {
+        for (String term : terms) {
+            Postings postings = index.get(term);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.size == 0) {
+                    index.remove(term);
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new ArrayList<>();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static class IndexedItem {
+        private final String[] nameTerms;
+        private final String[] descriptionTerms;
+
+        IndexedItem(String[] nameTerms, String[] descriptionTerms) {
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+        }
+    }
+
+    //отсортированный список идентификаторов вещей для одного слова
+    private static class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
 
     ItemDto createItem(ItemDto itemDto, long userId);
 
+    List<ItemDto> createItems(List<ItemDto> itemDtos, long userId);
+
     ItemDto updateItem(ItemDto itemDto, long id, long userId);
 
     List<ItemDto> getAllItem(long userId);
 
     List<ItemDto> getAllItemWithPagination(long userId, Integer from, Integer size);
 
+    long countAllItem(long userId);
+
     ItemDto getItemById(long id, long userId);
 
+    String getItemEtag(long id, long userId);
+
+    List<FreeSlotDto> getItemAvailability(long id, long userId, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> searchItemsWithPagination(String text, long userId, Integer from, Integer size);
+
+    long countSearchItems(String text);
 }
@@ -2,30 +2,46 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDtoForItem;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingForItemView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ItemNotExistException;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentDtoForItem;
+import ru.practicum.shareit.item.comment.dto.CommentDtoMapper;
+import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,11 +55,16 @@ public class ItemServiceImpl implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemViewCache itemViewCache;
+    private final UserExistenceCache userExistenceCache;
+    private final ItemAvailabilityIndex itemAvailabilityIndex;
 
     @Override
     public ItemDto createItem(ItemDto itemDto, long userId) {
-        userRepository.findById(userId);
-        User user = userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("User not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("User not exist"));
+        //владелец нужен только как внешний ключ, поэтому берется ссылка без запроса
+        User user = userRepository.getReferenceById(userId);
         log.info("Item " + itemDto + " создан");
 
         Item newItem;
@@ -54,89 +75,164 @@ public class ItemServiceImpl implements ItemService {
             newItem = ItemDtoMapper.toItem(itemDto, user, null);
         }
 
-        ItemDto finalItemDto = ItemDtoMapper.toItemDto(itemRepository.save(newItem), commentRepository.findAllByItem(newItem));
+        Item savedItem = itemRepository.save(newItem);
+        itemSearchIndex.index(savedItem);
+        itemViewCache.evict(savedItem.getId());
+        ItemDto finalItemDto = ItemDtoMapper.toItemDto(savedItem, commentRepository.findAllByItem(savedItem));
         log.info("Объект Item " + finalItemDto);
         return finalItemDto;
     }
 
+    @Override
+    @Transactional
+    public List<ItemDto> createItems(List<ItemDto> itemDtos, long userId) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("User not exist"));
+        User user = userRepository.getReferenceById(userId);
+
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        if (requests.size() != requestIds.size()) {
+            throw new NoSuchElementException();
+        }
+
+        List<Item> newItems = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            Item item = ItemDtoMapper.toItem(itemDto, user,
+                    itemDto.getRequestId() == null ? null : requests.get(itemDto.getRequestId()));
+            //пакет только создает вещи, переданный id привел бы к merge существующей
+            item.setId(null);
+            newItems.add(item);
+        }
+        //id берутся из последовательности, сами insert уходят пачками при коммите
+        List<Item> savedItems = itemRepository.saveAll(newItems);
+        itemSearchIndex.indexAll(savedItems);
+        log.info("Создано вещей " + savedItems.size() + " для юзера " + userId);
+        return savedItems.stream()
+                .map(item -> ItemDtoMapper.toItemDto(item, new ArrayList<>()))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public ItemDto updateItem(ItemDto itemDto, long id, long userId) {
-        userRepository.findById(userId).orElseThrow(() -> new UserNotExistObject("User not exist"));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("User not exist"));
         Item item = itemRepository.findById(id).orElseThrow(() -> new ItemNotExistException("Item not exist"));
         Item newItem = checkFromUpdate(itemDto, item);
         log.info("Item " + itemDto + " обновлен");
-        return ItemDtoMapper.toItemDto(itemRepository.save(newItem), commentRepository.findAllByItem(newItem));
+        Item savedItem = itemRepository.save(newItem);
+        itemSearchIndex.index(savedItem);
+        itemViewCache.evict(savedItem.getId());
+        return ItemDtoMapper.toItemDto(savedItem, commentRepository.findAllByItem(savedItem));
     }
 
     @Override
     public List<ItemDto> getAllItem(long userId) {
-        List<ItemDto> items = itemRepository.findAllByOwnerIdOrderBy(userId).stream()
-                .map(x -> ItemDtoMapper.toItemDto(x, commentRepository.findAllByItem(x)))
-                .collect(Collectors.toList());
-        if (bookingRepository.findAll().size() != 0) {
-            return updateFromGetAllWithBooking(items);
-        }
-        return itemRepository.findAll().stream()
-                .filter(i -> i.getOwner().getId() == userId)
-                .map(x -> ItemDtoMapper.toItemDto(x, commentRepository.findAllByItem(x)))
-                .collect(Collectors.toList());
+        return toItemDtosWithBooking(itemRepository.findAllByOwnerIdOrderBy(userId).stream()
+                .map(item -> ItemDtoMapper.toItemDto(item, new ArrayList<>()))
+                .collect(Collectors.toList()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> getAllItemWithPagination(long userId, Integer from, Integer size) {
         Pageable page = PageRequest.of(from / size, size, sort);
-        Page<Item> itemPage = itemRepository.findAllByOwnerId(userId, page);
-
-        List<ItemDto> items = itemPage.getContent().stream()
-                .map(x -> ItemDtoMapper.toItemDto(x, commentRepository.findAllByItem(x)))
-                .collect(Collectors.toList());
+        List<ItemDto> items = itemRepository.findAllByOwnerId(userId, page);
 
-        if (bookingRepository.findAll().size() != 0) {
-            return updateFromGetAllWithBooking(items);
-        }
-        return itemPage.getContent().stream()
-                .filter(i -> i.getOwner().getId() == userId)
-                .map(x -> ItemDtoMapper.toItemDto(x, commentRepository.findAllByItem(x)))
-                .collect(Collectors.toList());
+        return toItemDtosWithBooking(items);
+    }
 
+    @Override
+    public long countAllItem(long userId) {
+        return itemRepository.countByOwnerId(userId);
     }
 
     @Override
     public ItemDto getItemById(long id, long userId) {
-        Item item = itemRepository.findById(id).orElseThrow(() -> new ItemNotExistException("Item not exist"));
-        if (bookingRepository.findAll().size() != 0 && item.getOwner().getId() == userId) {
-            List<Booking> lastBookings = bookingRepository.findAllBookingByItemIdForLastBooking(id, LocalDateTime.now());
-            BookingDtoForItem lastBooking = lastBookings.size() > 0 ? BookingDtoMapper.toBookingDtoForItem(lastBookings.get(0)) : null;
-
-            List<Booking> nextBookings = bookingRepository.findAllBookingByItemIdForNextBooking(id, LocalDateTime.now());
-            BookingDtoForItem nextBooking = nextBookings.size() > 0 ? BookingDtoMapper.toBookingDtoForItem(nextBookings.get(0)) : null;
-
-            if (lastBooking == null) {
-                nextBooking = null;
-            }
+        return itemViewCache.get(id, this::loadItemView).toItemDto(userId);
+    }
 
-            return ItemDtoMapper.toItemDtoWithBooking(item, lastBooking, nextBooking, commentRepository.findAllByItem(item));
-        } else if (bookingRepository.findAll().size() != 0 && item.getOwner().getId() != userId) {
+    //ETag из той же записи кэша, что и карточка: при попадании в кэш запросов к базе нет
+    @Override
+    public String getItemEtag(long id, long userId) {
+        return itemViewCache.get(id, this::loadItemView).getEtag(userId);
+    }
 
-            return ItemDtoMapper.toItemDtoWithBooking(item, null, null, commentRepository.findAllByItem(item));
+    @Override
+    public List<FreeSlotDto> getItemAvailability(long id, long userId, LocalDateTime from, LocalDateTime to) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("User not exist"));
+        if (!itemRepository.existsById(id)) {
+            throw new ItemNotExistException("Item not exist");
         }
-        return ItemDtoMapper.toItemDto(itemRepository.findById(id).orElseThrow(() -> new ItemNotExistException("Item not exist")), commentRepository.findAllByItem(item));
+        return itemAvailabilityIndex.freeSlots(id, from, to);
     }
 
     @Override
     public List<ItemDto> searchItemsWithPagination(String text, long userId, Integer from, Integer size) {
-        userRepository.findById(userId).orElseThrow();
+        userExistenceCache.requireExists(userId, NoSuchElementException::new);
         if (text.isEmpty()) {
             return new ArrayList<>();
         }
         Pageable page = PageRequest.of(from / size, size, sort);
-        Page<Item> itemPage = itemRepository.searchItemsPageable(text, page, userId);
 
-        return itemPage.getContent().stream()
-                .map(x -> ItemDtoMapper.toItemDto(x, commentRepository.findAllByItem(x)))
+        //индекс отдает идентификаторы в порядке релевантности, сами вещи и комментарии догружаются пачкой
+        List<Item> items;
+        boolean hasStaleIds;
+        do {
+            List<Long> itemIds = itemSearchIndex.search(text, page.getOffset(), page.getPageSize());
+            if (itemIds.isEmpty()) {
+                return new ArrayList<>();
+            }
+            Map<Long, Item> itemsById = itemRepository.findAllByIdIn(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            items = new ArrayList<>();
+            hasStaleIds = false;
+            for (Long itemId : itemIds) {
+                Item item = itemsById.get(itemId);
+                if (item != null) {
+                    items.add(item);
+                } else {
+                    itemSearchIndex.remove(itemId);
+                    hasStaleIds = true;
+                }
+            }
+        } while (hasStaleIds);
+
+        Map<Long, List<Comment>> commentsByItem = commentRepository.findAllByItemIds(items.stream()
+                        .map(Item::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId()));
+        return items.stream()
+                .map(x -> ItemDtoMapper.toItemDto(x, commentsByItem.getOrDefault(x.getId(), new ArrayList<>())))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long countSearchItems(String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        return itemSearchIndex.count(text);
+    }
+
+    //бронирования загружаются для любого пользователя, чтобы одна запись кэша подходила и владельцу
+    private CachedItemView loadItemView(long id) {
+        Item item = itemRepository.findById(id).orElseThrow(() -> new ItemNotExistException("Item not exist"));
+        ItemDto itemDto = ItemDtoMapper.toItemDto(item, commentRepository.findAllByItemIds(List.of(id)));
+        BookingDtoForItem lastBooking = null;
+        BookingDtoForItem nextBooking = null;
+        for (BookingForItemView b : bookingRepository.findLastAndNextBookingsByItemIds(List.of(id), LocalDateTime.now())) {
+            if ("LAST".equals(b.getKind())) {
+                lastBooking = BookingDtoMapper.toBookingDtoForItem(b);
+            } else {
+                nextBooking = BookingDtoMapper.toBookingDtoForItem(b);
+            }
+        }
+        return new CachedItemView(itemDto, item.getOwner().getId(), lastBooking, nextBooking);
+    }
+
     private Item checkFromUpdate(ItemDto itemDto, Item item) {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
@@ -150,24 +246,35 @@ public class ItemServiceImpl implements ItemService {
         return item;
     }
 
-    public List<ItemDto> updateFromGetAllWithBooking(List<ItemDto> items) {
-        List<ItemDto> finalItems = new ArrayList<>();
-        for (ItemDto i : items) {
-            List<Booking> lastBookings = bookingRepository.findAllBookingByItemIdForLastBooking(i.getId(), LocalDateTime.now());
-            List<Booking> nextBookings = bookingRepository.findAllBookingByItemIdForNextBooking(i.getId(), LocalDateTime.now());
-            for (Booking b : lastBookings) {
-                if (i.getId().equals(b.getItem().getId()) && i.getLastBooking() == null) {
-                    i.setLastBooking(BookingDtoMapper.toBookingDtoForItem(b));
-                }
-            }
-            for (Booking nb : nextBookings) {
-                if (i.getId().equals(nb.getItem().getId()) && i.getNextBooking() == null) {
-                    i.setNextBooking(BookingDtoMapper.toBookingDtoForItem(nb));
-                }
+    //комментарии и бронирования для всей страницы загружаются двумя запросами, а не запросами на каждую вещь
+    private List<ItemDto> toItemDtosWithBooking(List<ItemDto> items) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> itemIds = items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<CommentDto>> commentsByItem = new HashMap<>();
+        for (CommentDtoForItem c : commentRepository.findDtosByItemIds(itemIds)) {
+            commentsByItem.computeIfAbsent(c.getItemId(), id -> new ArrayList<>()).add(CommentDtoMapper.toCommentDto(c));
+        }
+
+        Map<Long, BookingDtoForItem> lastBookings = new HashMap<>();
+        Map<Long, BookingDtoForItem> nextBookings = new HashMap<>();
+        for (BookingForItemView b : bookingRepository.findLastAndNextBookingsByItemIds(itemIds, LocalDateTime.now())) {
+            if ("LAST".equals(b.getKind())) {
+                lastBookings.put(b.getItemId(), BookingDtoMapper.toBookingDtoForItem(b));
+            } else {
+                nextBookings.put(b.getItemId(), BookingDtoMapper.toBookingDtoForItem(b));
             }
-            finalItems.add(i);
         }
-        return finalItems;
+
+        for (ItemDto itemDto : items) {
+            itemDto.setComments(commentsByItem.getOrDefault(itemDto.getId(), new ArrayList<>()));
+            itemDto.setLastBooking(lastBookings.get(itemDto.getId()));
+            itemDto.setNextBooking(nextBookings.get(itemDto.getId()));
+        }
+        return items;
     }
 }
-
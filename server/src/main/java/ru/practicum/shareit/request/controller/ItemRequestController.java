@@ -2,7 +2,9 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -16,6 +18,7 @@ import java.util.List;
 public class ItemRequestController {
 
     private final ItemRequestService itemRequestService;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
     @PostMapping
     public ItemRequestDto createRequest(@RequestBody ItemRequestDtoIn itemRequestDtoIn,
@@ -29,15 +32,26 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequestsForOtherUser(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                                           @RequestParam(required = false, defaultValue = "0") Integer from,
-                                                           @RequestParam(required = false, defaultValue = "10") Integer size) {
-        return itemRequestService.getAllRequestsForOtherUser(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequestsForOtherUser(@RequestHeader(value = "X-Sharer-User-Id") long userId,
+                                                                           @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                                           @RequestParam(required = false, defaultValue = "10") Integer size,
+                                                                           @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
+        List<ItemRequestDto> requests = itemRequestService.getAllRequestsForOtherUser(userId, from, size);
+        if (!includeTotal) {
+            return ResponseEntity.ok(requests);
+        }
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(itemRequestService.countRequestsForOtherUser(userId)))
+                .body(requests);
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto getRequestById(@RequestHeader(value = "X-Sharer-User-Id") long userId,
-                                         @PathVariable long requestId) {
+                                         @PathVariable long requestId,
+                                         WebRequest request) {
+        if (request.checkNotModified(itemRequestService.getRequestEtag(userId, requestId))) {
+            return null;
+        }
         return itemRequestService.getRequestById(userId, requestId);
     }
 }
@@ -1,19 +1,27 @@
 package ru.practicum.shareit.request.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.shareit.item.dto.ItemDtoForItemRequest;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Builder
 @Getter
 @Setter
+@AllArgsConstructor
 public class ItemRequestDto {
     private Long id;
     private String description;
     private LocalDateTime created;
     private List<ItemDtoForItemRequest> items;
+
+    //для выборки запросов сразу в dto, вещи добавляются отдельным запросом
+    public ItemRequestDto(Long id, String description, LocalDateTime created) {
+        this(id, description, created, new ArrayList<>());
+    }
 }
@@ -4,6 +4,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 
 public class ItemRequestMapper {
@@ -20,7 +21,7 @@ public class ItemRequestMapper {
     public static ItemRequest toItemRequestForItemRequestDtoIn(ItemRequestDtoIn itemRequestDtoIn, User requestor) {
         return ItemRequest.builder()
                 .description(itemRequestDtoIn.getDescription())
-                .created(LocalDateTime.now())
+                .created(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
                 .requestor(requestor)
                 .build();
     }
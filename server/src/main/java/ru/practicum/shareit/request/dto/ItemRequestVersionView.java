@@ -0,0 +1,14 @@
+package ru.practicum.shareit.request.dto;
+
+//версии запроса и вещей, добавленных в ответ на него
+public interface ItemRequestVersionView {
+    Long getVersion();
+
+    Long getItems();
+
+    Long getItemVersions();
+
+    default String toEtag() {
+        return "r" + getVersion() + "-i" + getItems() + "." + getItemVersions();
+    }
+}
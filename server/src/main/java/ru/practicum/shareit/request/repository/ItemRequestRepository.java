@@ -1,17 +1,38 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import org.springframework.data.domain.Pageable;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r " +
+            "from ItemRequest r " +
+            "where r.requestor.id = ?1 ")
     List<ItemRequest> findByRequestor_Id(long userId, Sort sort);
 
     ItemRequest findByRequestor_Id(long userId);
 
-    Page<ItemRequest> findByRequestor_IdNot(long userId, Pageable pageable);
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) " +
+            "from ItemRequest r " +
+            "where r.requestor.id <> ?1 ")
+    List<ItemRequestDto> findByRequestor_IdNot(long userId, Pageable pageable);
+
+    @Query("select count(r) " +
+            "from ItemRequest r " +
+            "where r.requestor.id <> ?1 ")
+    long countByRequestor_IdNot(long userId);
+
+    @Query("select r.version as version, " +
+            "(select count(i) from Item i where i.itemRequest = r) as items, " +
+            "(select coalesce(sum(i.version), 0) from Item i where i.itemRequest = r) as itemVersions " +
+            "from ItemRequest r " +
+            "where r.id = ?1 ")
+    Optional<ItemRequestVersionView> findVersionsById(long id);
 }
@@ -14,5 +14,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllRequestsForOtherUser(long userId, Integer from, Integer size);
 
+    long countRequestsForOtherUser(long userId);
+
     ItemRequestDto getRequestById(long userId, long requestId) throws ItemRequestNotExist;
+
+    String getRequestEtag(long userId, long requestId);
 }
@@ -2,26 +2,29 @@ package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ItemRequestNotExist;
 import ru.practicum.shareit.exception.UserNotExistObject;
-import ru.practicum.shareit.item.comment.repository.CommentRepository;
-import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.dto.ItemDtoForItemRequest;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestVersionView;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,11 +37,12 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
-    private final CommentRepository commentRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Override
     public ItemRequestDto createRequest(ItemRequestDtoIn itemRequestDtoIn, long userId) {
-        User user = userRepository.findById(userId).orElseThrow((() -> new UserNotExistObject("Юзера с айди " + userId + " не существует")));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("Юзера с айди " + userId + " не существует"));
+        User user = userRepository.getReferenceById(userId);
 
         ItemRequest itemRequest = ItemRequestMapper.toItemRequestForItemRequestDtoIn(itemRequestDtoIn, user);
 
@@ -48,65 +52,64 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getAllRequestsForOwner(long userId) {
-        userRepository.findById(userId).orElseThrow((() -> new UserNotExistObject("Юзера с айди " + userId + " не существует")));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("Юзера с айди " + userId + " не существует"));
         List<ItemRequestDto> itemsRequestDto = itemRequestRepository.findByRequestor_Id(userId, sort).stream()
                 .map(ItemRequestMapper::toItemRequestDto)
                 .collect(Collectors.toList());
-        List<ItemDto> itemsDto = itemRepository.findAll().stream()
-                .map(i -> ItemDtoMapper.toItemDto(i, commentRepository.findAllByItem(i)))
-                .collect(Collectors.toList());
-
-        updateForItemsInItemRequest(itemsRequestDto, itemsDto);
+        updateForItemsInItemRequest(itemsRequestDto);
         return itemsRequestDto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getAllRequestsForOtherUser(long userId, Integer from, Integer size) throws ItemRequestNotExist {
-        userRepository.findById(userId).orElseThrow((() -> new UserNotExistObject("Юзера с айди " + userId + " не существует")));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("Юзера с айди " + userId + " не существует"));
         Pageable page = PageRequest.of(from, size, sort);
-        Page<ItemRequest> itemRequestPage = itemRequestRepository.findByRequestor_IdNot(userId, page);
-
-        List<ItemRequestDto> itemRequestDtos = itemRequestPage.getContent().stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        List<ItemRequestDto> itemRequestDtos = itemRequestRepository.findByRequestor_IdNot(userId, page);
 
-        List<ItemDto> itemsDto = itemRepository.findAll().stream()
-                .map(i -> ItemDtoMapper.toItemDto(i, commentRepository.findAllByItem(i)))
-                .collect(Collectors.toList());
-
-        updateForItemsInItemRequest(itemRequestDtos, itemsDto);
+        updateForItemsInItemRequest(itemRequestDtos);
 
         return itemRequestDtos;
     }
 
+    @Override
+    public long countRequestsForOtherUser(long userId) {
+        return itemRequestRepository.countByRequestor_IdNot(userId);
+    }
+
     @Override
     public ItemRequestDto getRequestById(long userId, long requestId) {
-        userRepository.findById(userId).orElseThrow((() -> new UserNotExistObject("Юзера с айди " + userId + " не существует")));
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("Юзера с айди " + userId + " не существует"));
         ItemRequestDto itemRequestDto = ItemRequestMapper.toItemRequestDto(itemRequestRepository.findById(requestId).orElseThrow((() -> new ItemRequestNotExist("Запрос с айди " + requestId + " не существует"))));
 
-        List<ItemDto> itemsDto = itemRepository.findAll().stream()
-                .map(i -> ItemDtoMapper.toItemDto(i, commentRepository.findAllByItem(i)))
+        updateForItemsInItemRequest(List.of(itemRequestDto));
+        return itemRequestDto;
+    }
+
+    @Override
+    public String getRequestEtag(long userId, long requestId) {
+        userExistenceCache.requireExists(userId, () -> new UserNotExistObject("Юзера с айди " + userId + " не существует"));
+        return itemRequestRepository.findVersionsById(requestId)
+                .map(ItemRequestVersionView::toEtag)
+                .orElse(null);
+    }
+
+    //вещи загружаются одним запросом только для запросов текущей страницы
+    private void updateForItemsInItemRequest(List<ItemRequestDto> itemsRequestDto) {
+        if (itemsRequestDto.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemsRequestDto.stream()
+                .map(ItemRequestDto::getId)
                 .collect(Collectors.toList());
 
-        for (ItemDto i : itemsDto) {
-            if (i.getRequestId() != null) {
-                if (i.getRequestId().equals(itemRequestDto.getId())) {
-                    itemRequestDto.getItems().add(ItemDtoMapper.toItemDtoFroRequest(i));
-                }
-            }
+        Map<Long, List<ItemDtoForItemRequest>> itemsByRequest = new HashMap<>();
+        for (ItemDtoForItemRequest i : itemRepository.findAllForRequests(requestIds)) {
+            itemsByRequest.computeIfAbsent(i.getRequestId(), id -> new ArrayList<>()).add(i);
         }
-        return itemRequestDto;
-    }
 
-    private void updateForItemsInItemRequest(List<ItemRequestDto> itemsRequestDto, List<ItemDto> itemsDto) {
         for (ItemRequestDto ir : itemsRequestDto) {
-            for (ItemDto i : itemsDto) {
-                if (i.getRequestId() != null) {
-                    if (i.getRequestId().equals(ir.getId())) {
-                        ir.getItems().add(ItemDtoMapper.toItemDtoFroRequest(i));
-                    }
-                }
-            }
+            ir.getItems().addAll(itemsByRequest.getOrDefault(ir.getId(), new ArrayList<>()));
         }
     }
 
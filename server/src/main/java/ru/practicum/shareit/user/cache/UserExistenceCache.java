@@ -0,0 +1,98 @@
+package ru.practicum.shareit.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+//множество id существующих пользователей: проверка X-Sharer-User-Id без запроса в базу
+//хранятся только подтвержденные id, отсутствие в кэше проверяется запросом
+//срок жизни ограничен: пользователя могут удалить с другого экземпляра сервера
+@Component
+public class UserExistenceCache {
+    public static final String CACHE_NAME = "userExists";
+
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> cache;
+    //id -> метка идущей проверки, сброс убирает метку, и проверка не запоминает прочитанное до удаления
+    private final ConcurrentMap<Long, Object> loads = new ConcurrentHashMap<>();
+
+    public UserExistenceCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                              @Value("${shareit.cache.user-exists.maximum-size:100000}") long maximumSize,
+                              @Value("${shareit.cache.user-exists.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public <X extends RuntimeException> void requireExists(long userId, Supplier<X> exceptionSupplier) {
+        if (cache.getIfPresent(userId) != null) {
+            return;
+        }
+        Object load = new Object();
+        loads.put(userId, load);
+        boolean exists;
+        try {
+            //поиск по первичному ключу, existsById в Spring Data выполняет count(*)
+            exists = userRepository.findById(userId).isPresent();
+        } catch (RuntimeException e) {
+            loads.remove(userId, load);
+            throw e;
+        }
+        if (!exists) {
+            loads.remove(userId, load);
+            throw exceptionSupplier.get();
+        }
+        afterCommit(committed -> {
+            if (committed) {
+                cache.put(userId, Boolean.TRUE);
+            }
+            //id кладется до снятия метки: сброс после снятия удалит его сам, до снятия - удалим мы
+            if (!loads.remove(userId, load)) {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    public void put(long userId) {
+        afterCommit(committed -> {
+            if (committed) {
+                cache.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    public void evict(long userId) {
+        loads.remove(userId);
+        cache.invalidate(userId);
+    }
+
+    //внутри транзакции id запоминается только после коммита, иначе после отката останется несуществующий
+    private static void afterCommit(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -18,6 +19,11 @@ public class UserController {
         return userService.createUser(userDto);
     }
 
+    @PostMapping("/batch")
+    public List<UserDto> createUsers(@RequestBody List<UserDto> userDtos) {
+        return userService.createUsers(userDtos);
+    }
+
     @PatchMapping("/{id}")
     public UserDto updateUser(@RequestBody UserDto userDto, @PathVariable Long id) {
         return userService.updateUser(userDto, id);
@@ -29,7 +35,10 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public UserDto getUserById(@PathVariable long id) {
+    public UserDto getUserById(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(userService.getUserEtag(id))) {
+            return null;
+        }
         return userService.getUserById(id);
     }
 
@@ -8,12 +8,16 @@ public interface UserService {
 
     UserDto createUser(UserDto userDto);
 
+    List<UserDto> createUsers(List<UserDto> userDtos);
+
     UserDto updateUser(UserDto userDto, long id);
 
     List<UserDto> getAllUsers();
 
     UserDto getUserById(long id);
 
+    String getUserEtag(long id);
+
     void deleteUserById(long id);
 
 }
@@ -3,7 +3,11 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,25 +22,51 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final CommentRepository commentRepository;
+    private final ItemViewCache itemViewCache;
 
     @Override
     public UserDto createUser(UserDto userDto) {
         log.info("Юзер " + userDto + " создан");
         User newUser = UserDtoMapper.toUser(userDto);
-        return UserDtoMapper.toUserDto(userRepository.save(newUser));
+        User savedUser = userRepository.save(newUser);
+        userExistenceCache.put(savedUser.getId());
+        return UserDtoMapper.toUserDto(savedUser);
+    }
+
+    @Override
+    @Transactional
+    public List<UserDto> createUsers(List<UserDto> userDtos) {
+        List<User> newUsers = userDtos.stream()
+                .map(UserDtoMapper::toUser)
+                .peek(user -> user.setId(null))
+                .collect(Collectors.toList());
+        List<User> savedUsers = userRepository.saveAll(newUsers);
+        savedUsers.forEach(user -> userExistenceCache.put(user.getId()));
+        log.info("Создано юзеров " + savedUsers.size());
+        return savedUsers.stream()
+                .map(UserDtoMapper::toUserDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     public UserDto updateUser(UserDto userDto, long id) {
         User userFromBd = userRepository.findById(id).orElseThrow();
+        boolean renamed = userDto.getName() != null && !userDto.getName().equals(userFromBd.getName());
         if (userDto.getName() != null) {
             userFromBd.setName(userDto.getName());
         }
         if (userDto.getEmail() != null) {
             userFromBd.setEmail(userDto.getEmail());
         }
+        User savedUser = userRepository.save(userFromBd);
+        //имя автора хранится в закэшированных карточках вещей с его комментариями
+        if (renamed) {
+            commentRepository.findItemIdsByAuthorId(id).forEach(itemViewCache::evict);
+        }
         log.info("Юзер " + userDto + " обновлен");
-        return UserDtoMapper.toUserDto(userRepository.save(userFromBd));
+        return UserDtoMapper.toUserDto(savedUser);
     }
 
     @Override
@@ -53,9 +83,17 @@ public class UserServiceImpl implements UserService {
         return UserDtoMapper.toUserDto(userRepository.findById(id).orElseThrow(() -> new UserNotExistObject("User not exist")));
     }
 
+    @Override
+    public String getUserEtag(long id) {
+        return userRepository.findVersionById(id)
+                .map(version -> "u" + version)
+                .orElse(null);
+    }
+
     @Override
     public void deleteUserById(long id) {
         log.info("Юзер с id " + id + " удален");
         userRepository.deleteById(id);
+        userExistenceCache.evict(id);
     }
 }
@@ -0,0 +1,62 @@
+--только для Postgres, выполняется после schema.sql (spring.sql.init.schema-locations)
+--в H2 пересечения отсекает проверка в BookingServiceImpl
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+--занятые даты вещи не пересекаются; отклоненные бронирования даты не занимают, концы интервалов могут совпадать
+--ограничение добавляется один раз: пересоздание при каждом запуске перестраивало бы индекс под ACCESS EXCLUSIVE
+--пересечения, оставшиеся с прежних версий, до этого отклоняются по очереди: сначала подтвержденные, затем по id,
+--бронирование отклоняется, если пересекается с уже оставленным
+--тело DO в одинарных кавычках: ScriptUtils не знает $$ и разрезал бы блок по точкам с запятой
+DO '
+DECLARE
+    r RECORD;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_no_overlap'') THEN
+        FOR r IN SELECT booking_id, item_id, start_date, end_date, status FROM BOOKINGS
+                 WHERE status <> ''REJECTED''
+                 ORDER BY status = ''APPROVED'' DESC, booking_id LOOP
+            IF EXISTS (SELECT 1 FROM BOOKINGS o
+                       WHERE o.item_id = r.item_id
+                         AND o.booking_id <> r.booking_id
+                         AND o.status <> ''REJECTED''
+                         AND tsrange(o.start_date, o.end_date) && tsrange(r.start_date, r.end_date)
+                         AND (o.status = ''APPROVED'' AND r.status <> ''APPROVED''
+                              OR (o.status = ''APPROVED'') = (r.status = ''APPROVED'') AND o.booking_id < r.booking_id)) THEN
+                UPDATE BOOKINGS SET status = ''REJECTED'', version = version + 1 WHERE booking_id = r.booking_id;
+            END IF;
+        END LOOP;
+        ALTER TABLE BOOKINGS ADD CONSTRAINT bookings_no_overlap
+        EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status <> ''REJECTED'');
+    END IF;
+END';
+
+--id выдает Hibernate из последовательностей (allocationSize = 50), identity остался только в базах, созданных до этого
+DO '
+DECLARE
+    c RECORD;
+BEGIN
+    FOR c IN SELECT t.relname, a.attname FROM pg_attribute a JOIN pg_class t ON t.oid = a.attrelid
+             WHERE t.relnamespace = current_schema()::regnamespace
+               AND t.relname IN (''users'', ''requests'', ''items'', ''bookings'', ''comments'')
+               AND a.attidentity <> '''' LOOP
+        EXECUTE format(''ALTER TABLE %I ALTER COLUMN %I DROP IDENTITY'', c.relname, c.attname);
+    END LOOP;
+END';
+
+--последовательности догоняют id, выданные раньше через identity, и назад не сдвигаются
+--pooled-оптимизатор берет блок (n - 49 .. n], поэтому следующим значением должно быть не меньше max(id) + 50
+SELECT setval('users_seq', m.max_id + 50, false)
+FROM (SELECT COALESCE(MAX(user_id), 0) AS max_id FROM USERS) m, users_seq s
+WHERE CASE WHEN s.is_called THEN s.last_value + 50 ELSE s.last_value END < m.max_id + 50;
+SELECT setval('requests_seq', m.max_id + 50, false)
+FROM (SELECT COALESCE(MAX(request_id), 0) AS max_id FROM REQUESTS) m, requests_seq s
+WHERE CASE WHEN s.is_called THEN s.last_value + 50 ELSE s.last_value END < m.max_id + 50;
+SELECT setval('items_seq', m.max_id + 50, false)
+FROM (SELECT COALESCE(MAX(item_id), 0) AS max_id FROM ITEMS) m, items_seq s
+WHERE CASE WHEN s.is_called THEN s.last_value + 50 ELSE s.last_value END < m.max_id + 50;
+SELECT setval('bookings_seq', m.max_id + 50, false)
+FROM (SELECT COALESCE(MAX(booking_id), 0) AS max_id FROM BOOKINGS) m, bookings_seq s
+WHERE CASE WHEN s.is_called THEN s.last_value + 50 ELSE s.last_value END < m.max_id + 50;
+SELECT setval('comments_seq', m.max_id + 50, false)
+FROM (SELECT COALESCE(MAX(comment_id), 0) AS max_id FROM COMMENTS) m, comments_seq s
+WHERE CASE WHEN s.is_called THEN s.last_value + 50 ELSE s.last_value END < m.max_id + 50;
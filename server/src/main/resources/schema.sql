@@ -1,40 +1,72 @@
 
 
+--id выдаются блоками по 50 из последовательностей (allocationSize в сущностях), чтобы вставки шли пачками
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS USERS(
-user_id INTEGER generated by default as identity primary key,
+user_id INTEGER primary key,
 name varchar (100) not null,
-email varchar (100) not null UNIQUE
+email varchar (100) not null UNIQUE,
+version BIGINT DEFAULT 0 not null
 );
 
 CREATE TABLE IF NOT EXISTS REQUESTS(
-request_id INTEGER generated by default as identity primary key,
+request_id INTEGER primary key,
 description varchar(200) not null,
 requestor_id INTEGER REFERENCES USERS(user_id),
-created timestamp WITHOUT TIME ZONE not null
+created timestamp WITHOUT TIME ZONE not null,
+version BIGINT DEFAULT 0 not null
 );
 
 CREATE TABLE IF NOT EXISTS ITEMS(
-item_id INTEGER generated by default as identity primary key,
+item_id INTEGER primary key,
 name varchar(100) not null,
 description varchar(200) not null,
 available boolean not null,
 user_id INTEGER REFERENCES USERS(user_id),
-request_id INTEGER REFERENCES REQUESTS(request_id)
+request_id INTEGER REFERENCES REQUESTS(request_id),
+version BIGINT DEFAULT 0 not null
 );
 
 CREATE TABLE IF NOT EXISTS BOOKINGS(
-booking_id INTEGER generated by default as identity primary key,
+booking_id INTEGER primary key,
 start_date timestamp WITHOUT TIME ZONE,
 end_date timestamp WITHOUT TIME ZONE,
 status varchar(100) not null,
 item_id INTEGER REFERENCES ITEMS(item_id) not null,
-booker_id INTEGER REFERENCES USERS(user_id) not null
+booker_id INTEGER REFERENCES USERS(user_id) not null,
+version BIGINT DEFAULT 0 not null
 );
 
 CREATE TABLE IF NOT EXISTS COMMENTS(
-comment_id INTEGER generated by default as identity primary key,
+comment_id INTEGER primary key,
 text varchar(255) not null,
 item_id INTEGER REFERENCES ITEMS(item_id) not null,
 author_id INTEGER REFERENCES USERS(user_id) not null,
 created timestamp WITHOUT TIME ZONE not null
-);
\ No newline at end of file
+);
+
+--версии строк для ETag и оптимистичной блокировки в базах, созданных до их появления
+ALTER TABLE USERS ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 not null;
+ALTER TABLE REQUESTS ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 not null;
+ALTER TABLE ITEMS ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 not null;
+ALTER TABLE BOOKINGS ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 not null;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON BOOKINGS(booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON BOOKINGS(booker_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON BOOKINGS(booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON BOOKINGS(booker_id, booking_id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_status_end ON BOOKINGS(booker_id, item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start_status ON BOOKINGS(item_id, start_date, status);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status ON BOOKINGS(item_id, status);
+CREATE INDEX IF NOT EXISTS idx_items_user ON ITEMS(user_id);
+CREATE INDEX IF NOT EXISTS idx_items_request ON ITEMS(request_id);
+CREATE INDEX IF NOT EXISTS idx_comments_item ON COMMENTS(item_id);
+CREATE INDEX IF NOT EXISTS idx_comments_author_item ON COMMENTS(author_id, item_id);
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON REQUESTS(requestor_id, created);
+--чужие запросы: условие <> индексом не отбирается, страница читается по индексу от новых к старым
+CREATE INDEX IF NOT EXISTS idx_requests_created ON REQUESTS(created DESC);
@@ -0,0 +1,120 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//без @Transactional: insert уходят в базу пачками только при коммите
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class BatchInsertTest {
+    private static final int COUNT = 1000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAllByIdInBatch(itemIds);
+        itemIds.forEach(itemSearchIndex::remove);
+        userRepository.deleteAllByIdInBatch(userIds);
+    }
+
+    @Test
+    @DisplayName("should insert users in batches")
+    void shouldInsertUsersInBatches() {
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            users.add(UserDto.builder()
+                    .name("Batch " + i)
+                    .email("batch-" + i + "@mail.ru")
+                    .build());
+        }
+
+        statistics.clear();
+        List<UserDto> created = userService.createUsers(users);
+        created.forEach(user -> userIds.add(user.getId()));
+
+        assertThat(statistics.getEntityInsertCount(), equalTo((long) COUNT));
+        //по одному insert и одному nextval на пачку из 50
+        assertThat(statistics.getPrepareStatementCount(), lessThan(COUNT / 10L));
+        assertThat(userRepository.findAllById(userIds), hasSize(COUNT));
+    }
+
+    @Test
+    @DisplayName("should insert items in batches and index them")
+    void shouldInsertItemsInBatches() {
+        UserDto owner = userService.createUser(UserDto.builder()
+                .name("Batch owner")
+                .email("batch-owner@mail.ru")
+                .build());
+        userIds.add(owner.getId());
+        List<ItemDto> items = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            items.add(ItemDto.builder()
+                    .name("Фреза " + i)
+                    .description("Пакетная вставка")
+                    .available(true)
+                    .build());
+        }
+
+        statistics.clear();
+        List<ItemDto> created = itemService.createItems(items, owner.getId());
+        itemIds.addAll(created.stream().map(ItemDto::getId).collect(Collectors.toList()));
+
+        assertThat(statistics.getEntityInsertCount(), equalTo((long) COUNT));
+        assertThat(statistics.getPrepareStatementCount(), lessThan(COUNT / 10L));
+        assertThat(itemService.countSearchItems("фреза"), equalTo((long) COUNT));
+    }
+
+    @Test
+    @DisplayName("should roll back whole batch on duplicate email")
+    void shouldRollBackBatchOnDuplicate() {
+        List<UserDto> users = List.of(
+                UserDto.builder().name("First").email("batch-duplicate@mail.ru").build(),
+                UserDto.builder().name("Second").email("batch-duplicate@mail.ru").build());
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUsers(users));
+        assertThat(userService.getAllUsers().stream()
+                .filter(user -> user.getEmail().equals("batch-duplicate@mail.ru"))
+                .count(), equalTo(0L));
+    }
+}
@@ -0,0 +1,171 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.SecondLevelCacheConfig;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.CapturingStatementInspector")
+@Import(SecondLevelCacheConfig.class)
+@DisplayName("Repository index usage")
+public class RepositoryIndexUsageTest {
+    public static final Sort SORT = Sort.by(Sort.Direction.DESC, "start");
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    @DisplayName("booker queries should use indexes")
+    void shouldUseIndexesForBookerQueries() throws SQLException {
+        Pageable page = PageRequest.of(0, 10, SORT);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoTableScan(() -> bookingRepository.findByBooker_Id(1L, page));
+        assertNoTableScan(() -> bookingRepository.findAllBookingsForStateCurrent(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByBooker_IdAndEndIsBefore(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByBooker_IdAndStartIsAfter(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByBooker_IdAndStatus(1L, Status.WAITING, page));
+        assertNoTableScan(() -> bookingRepository.existsPastApprovedBooking(1L, 1L, now));
+        assertNoTableScan(() -> bookingRepository.findAllBookingByUserIdAfter(1L, 0L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("owner queries should use indexes")
+    void shouldUseIndexesForOwnerQueries() throws SQLException {
+        Pageable page = PageRequest.of(0, 10, SORT);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoTableScan(() -> bookingRepository.findByItem_Owner_Id(1L, page));
+        assertNoTableScan(() -> bookingRepository.findAllBookingsForStateCurrentForOwner(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByItem_Owner_IdAndEndIsBefore(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByItem_Owner_IdAndStartIsAfter(1L, now, page));
+        assertNoTableScan(() -> bookingRepository.findByItem_Owner_IdAndStatus(1L, Status.WAITING, page));
+    }
+
+    @Test
+    @DisplayName("cursor queries should use indexes")
+    void shouldUseIndexesForCursorQueries() throws SQLException {
+        Pageable page = PageRequest.of(0, 10);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoTableScan(() -> bookingRepository.findSliceByBooker(1L, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByBookerCurrent(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByBookerPast(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByBookerFuture(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByBookerAndStatus(1L, Status.WAITING, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByOwner(1L, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByOwnerCurrent(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByOwnerPast(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByOwnerFuture(1L, now, now, 1L, page));
+        assertNoTableScan(() -> bookingRepository.findSliceByOwnerAndStatus(1L, Status.WAITING, now, 1L, page));
+    }
+
+    @Test
+    @DisplayName("item bookings queries should use indexes")
+    void shouldUseIndexesForItemBookingQueries() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoTableScan(() -> bookingRepository.findLastAndNextBookingsByItemIds(List.of(1L, 2L), now));
+    }
+
+    @Test
+    @DisplayName("item, comment and request queries should use indexes")
+    void shouldUseIndexesForItemQueries() throws SQLException {
+        assertNoTableScan(() -> itemRepository.findAllByOwnerIdOrderBy(1L));
+        assertNoTableScan(() -> itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 10)));
+        assertNoTableScan(() -> itemRepository.findAllForRequests(List.of(1L, 2L)));
+        assertNoTableScan(() -> commentRepository.findAllByItemIds(List.of(1L, 2L)));
+        assertNoTableScan(() -> commentRepository.findItemIdsByAuthorId(1L));
+        assertNoTableScan(() -> itemRequestRepository.findByRequestor_Id(1L, Sort.by(Sort.Direction.DESC, "created")));
+        assertNoTableScan(() -> itemRequestRepository.findByRequestor_IdNot(1L,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created"))));
+    }
+
+    @Test
+    @DisplayName("availability and overlap queries should use indexes")
+    void shouldUseIndexesForAvailabilityQueries() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertNoTableScan(() -> bookingRepository.existsOverlapping(1L, now, now.plusDays(1), 0L));
+        assertNoTableScan(() -> bookingRepository.findIntervalsByItemId(1L, List.of(Status.WAITING, Status.APPROVED)));
+    }
+
+    @Test
+    @DisplayName("ETag version queries should use indexes")
+    void shouldUseIndexesForVersionQueries() throws SQLException {
+        assertNoTableScan(() -> bookingRepository.findVersionsById(1L));
+        assertNoTableScan(() -> itemRequestRepository.findVersionsById(1L));
+        assertNoTableScan(() -> userRepository.findVersionById(1L));
+    }
+
+    private void assertNoTableScan(Runnable repositoryCall) throws SQLException {
+        CapturingStatementInspector.STATEMENTS.clear();
+        repositoryCall.run();
+        List<String> statements = new ArrayList<>(CapturingStatementInspector.STATEMENTS);
+        assertThat(statements, not(empty()));
+
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (plan.contains("tableScan")) {
+                throw new AssertionError("Запрос выполняется полным сканированием таблицы:\n" + plan);
+            }
+        }
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+//без @Transactional: в кэш второго уровня попадают только закоммиченные данные
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class SecondLevelCacheTest {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private Statistics statistics;
+    private UserDto owner;
+    private UserDto requestor;
+    private ItemRequestDto itemRequestDto;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(UserDto.builder()
+                .name("Owner")
+                .email("l2-owner@mail.ru")
+                .build());
+        requestor = userService.createUser(UserDto.builder()
+                .name("Requestor")
+                .email("l2-requestor@mail.ru")
+                .build());
+        ItemRequestDtoIn itemRequestDtoIn = new ItemRequestDtoIn();
+        itemRequestDtoIn.setDescription("Нужна дрель");
+        itemRequestDto = itemRequestService.createRequest(itemRequestDtoIn, requestor.getId());
+        for (int i = 0; i < 5; i++) {
+            itemIds.add(itemService.createItem(ItemDto.builder()
+                    .name("Дрель " + i)
+                    .description("Сверлит")
+                    .available(true)
+                    .requestId(itemRequestDto.getId())
+                    .build(), owner.getId()).getId());
+        }
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemIds.forEach(itemRepository::deleteById);
+        itemRequestRepository.deleteById(itemRequestDto.getId());
+        userService.deleteUserById(owner.getId());
+        userService.deleteUserById(requestor.getId());
+    }
+
+    @Test
+    @DisplayName("should run fewer statements with second level cache")
+    void shouldRunFewerStatementsWithCache() {
+        long withoutCache = runLoad(CacheMode.IGNORE);
+        long withCache = runLoad(CacheMode.NORMAL);
+
+        assertThat(withCache, lessThan(withoutCache));
+    }
+
+    @Test
+    @DisplayName("should see user and item updates through second level cache")
+    void shouldSeeUpdatesThroughCache() {
+        userService.getUserById(owner.getId());
+        itemService.getAllItem(owner.getId());
+
+        userService.updateUser(UserDto.builder().name("Новый владелец").build(), owner.getId());
+        itemService.updateItem(ItemDto.builder().name("Перфоратор").build(), itemIds.get(0), owner.getId());
+
+        assertThat(userService.getUserById(owner.getId()).getName(), equalTo("Новый владелец"));
+        assertThat(itemService.getAllItem(owner.getId()).get(0).getName(), equalTo("Перфоратор"));
+        assertThat(itemService.getAllItemWithPagination(owner.getId(), 0, 10).get(0).getName(), equalTo("Перфоратор"));
+    }
+
+    @Test
+    @DisplayName("should not share cached owner items between calls")
+    void shouldNotShareCachedOwnerItems() {
+        List<ItemDto> first = itemService.getAllItemWithPagination(owner.getId(), 0, 10);
+        statistics.clear();
+        List<ItemDto> second = itemService.getAllItemWithPagination(owner.getId(), 0, 10);
+
+        assertThat(statistics.getQueryCacheHitCount(), equalTo(1L));
+        assertThat(second.get(0), not(sameInstance(first.get(0))));
+    }
+
+    @Test
+    @DisplayName("should publish second level cache metrics")
+    void shouldPublishCacheMetrics() {
+        userService.getUserById(owner.getId());
+
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "user").tag("result", "hit")
+                .functionCounter(), notNullValue());
+        assertThat(meterRegistry.find("hibernate.cache.query.requests").tag("result", "hit")
+                .functionCounter(), notNullValue());
+    }
+
+    //каждая итерация - отдельная транзакция, как отдельный HTTP-запрос
+    private long runLoad(CacheMode cacheMode) {
+        statistics.clear();
+        for (int i = 0; i < 50; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                em.unwrap(Session.class).setCacheMode(cacheMode);
+                userService.getUserById(owner.getId());
+                itemService.getAllItem(owner.getId());
+                itemService.getAllItemWithPagination(owner.getId(), 0, 10);
+                itemRequestService.getRequestById(requestor.getId(), itemRequestDto.getId());
+            });
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.StatusAlreadyApprovedException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+//без @Transactional: потоки должны видеть изменения друг друга
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class BookingApprovalConcurrencyTest {
+    private static final int THREADS = 64;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto itemDto;
+    private long bookingId;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userService.createUser(UserDto.builder()
+                .name("Owner")
+                .email("approve-owner@mail.ru")
+                .build());
+        booker = userService.createUser(UserDto.builder()
+                .name("Booker")
+                .email("approve-booker@mail.ru")
+                .build());
+        itemDto = itemService.createItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build(), owner.getId());
+        bookingId = bookingService.createBooking(BookingDtoIn.builder()
+                .itemId(itemDto.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), booker.getId()).getId();
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteById(bookingId);
+        itemRepository.deleteById(itemDto.getId());
+        userService.deleteUserById(owner.getId());
+        userService.deleteUserById(booker.getId());
+    }
+
+    @Test
+    @DisplayName("should approve booking exactly once when owner approves it from many threads")
+    void shouldApproveOnce() {
+        List<Integer> results = hammer(i -> true);
+
+        assertThat(results.stream().filter(r -> r == 1).count(), equalTo(1L));
+        assertThat(results.stream().filter(r -> r == 0).count(), equalTo((long) THREADS - 1));
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        assertThat(booking.getStatus(), equalTo(Status.APPROVED));
+        assertThat(booking.getVersion(), equalTo(1L));
+    }
+
+    @Test
+    @DisplayName("should keep every status change when approves and rejects race")
+    void shouldNotLoseConcurrentChanges() {
+        List<Integer> results = hammer(i -> i % 2 == 0);
+
+        long changes = results.stream().filter(r -> r == 1).count();
+        assertThat(changes + results.stream().filter(r -> r == 0).count(), equalTo((long) THREADS));
+        //каждая успешная смена статуса прошла отдельным условным update, ни одна не перезаписана
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getVersion(), equalTo(changes));
+    }
+
+    //1 - статус изменен, 0 - бронирование уже подтверждено
+    private List<Integer> hammer(IntPredicate approved) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                boolean approve = approved.test(i);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        bookingService.updateBooking(bookingId, approve, owner.getId());
+                        return 1;
+                    } catch (StatusAlreadyApprovedException e) {
+                        return 0;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failures.incrementAndGet();
+                        return -1;
+                    }
+                }, executor));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            futures.forEach(future -> results.add(future.join()));
+            assertThat(failures.get(), equalTo(0));
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
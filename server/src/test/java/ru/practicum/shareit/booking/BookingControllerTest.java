@@ -9,9 +9,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.controller.BookingController;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.*;
@@ -27,12 +30,15 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -114,6 +120,60 @@ public class BookingControllerTest {
                 .createBooking(any(), anyLong());
     }
 
+    @Test
+    @DisplayName("should return owner bookings slice by cursor")
+    void shouldReturnOwnerBookingsSlice() throws Exception {
+        when(bookingService.getBookingsSliceCurrentUser(1L, State.PAST, "cursor", 5))
+                .thenReturn(new BookingSliceDto(List.of(bookingDto), true, "next"));
+
+        mvc.perform(get("/bookings/owner/slice?state=PAST&after=cursor&size=5")
+                        .header(HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.next", is("next")));
+    }
+
+    @Test
+    @DisplayName("should return bad request for invalid cursor")
+    void shouldReturnBadRequestForInvalidCursor() throws Exception {
+        when(bookingService.getBookingsSliceByUserIdAndState(1L, State.ALL, "bad", 10))
+                .thenThrow(new InvalidCursorException("bad cursor"));
+
+        mvc.perform(get("/bookings/slice?after=bad")
+                        .header(HEADER, 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("should export all bookings as json array")
+    void shouldExportAllBookings() throws Exception {
+        when(bookingService.exportAllBookings(1L))
+                .thenReturn(Stream.of(bookingDto, bookingDto));
+
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .header(HEADER, 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId()), Long.class))
+                .andExpect(jsonPath("$[1].status", is(bookingDto.getStatus().name())));
+    }
+
+    @Test
+    @DisplayName("should not export bookings for not exist user")
+    void shouldReturnNotFoundForExportUserNotExist() throws Exception {
+        when(bookingService.exportAllBookings(100L))
+                .thenThrow(new UserNotExistObject("user not exist"));
+
+        mvc.perform(get("/bookings/export")
+                        .header(HEADER, 100))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("should not save booking")
     void shouldReturnNotFoundForSaveBookingUserNotExist() throws Exception {
@@ -213,6 +273,25 @@ public class BookingControllerTest {
                 .getAllBookingsByUserIdAndState(anyLong(), any(), anyInt(), anyInt());
     }
 
+    @Test
+    @DisplayName("should return total count only when requested")
+    void shouldReturnTotalCountWhenRequested() throws Exception {
+        when(bookingService.getAllBookingsByUserIdAndState(anyLong(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(bookingDto));
+        when(bookingService.countBookingsByUserIdAndState(anyLong(), any()))
+                .thenReturn(42L);
+
+        mvc.perform(get("/bookings").header(HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"));
+        verify(bookingService, never()).countBookingsByUserIdAndState(anyLong(), any());
+
+        mvc.perform(get("/bookings?includeTotal=true").header(HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "42"))
+                .andExpect(jsonPath("$.[0].id", is(bookingDto.getId()), Long.class));
+    }
+
     @Test
     @DisplayName("should return all bookings current user")
     void shouldReturnAllBookingsCurrentUser() throws Exception {
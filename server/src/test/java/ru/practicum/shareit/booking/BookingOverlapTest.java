@@ -0,0 +1,223 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BookingOverlapException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//без @Transactional: потоки должны видеть изменения друг друга
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class BookingOverlapTest {
+    private static final int THREADS = 32;
+
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private final List<Long> itemIds = new ArrayList<>();
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userService.createUser(UserDto.builder()
+                .name("Owner")
+                .email("overlap-owner@mail.ru")
+                .build());
+        booker = userService.createUser(UserDto.builder()
+                .name("Booker")
+                .email("overlap-booker@mail.ru")
+                .build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemIds.forEach(itemId -> bookingRepository.deleteAll(bookingsOf(itemId)));
+        itemRepository.deleteAllById(itemIds);
+        itemIds.clear();
+        userService.deleteUserById(owner.getId());
+        userService.deleteUserById(booker.getId());
+    }
+
+    @Test
+    @DisplayName("should reject booking overlapping waiting one and allow adjacent")
+    void shouldRejectOverlap() {
+        long itemId = createItem();
+        book(itemId, 0, 24);
+
+        assertThrows(BookingOverlapException.class, () -> book(itemId, 12, 36));
+        assertThrows(BookingOverlapException.class, () -> book(itemId, 2, 4));
+        //конец одного бронирования совпадает с началом следующего
+        book(itemId, 24, 48);
+        book(itemId, -24, 0);
+        assertThat(bookingsOf(itemId).size(), equalTo(3));
+    }
+
+    @Test
+    @DisplayName("should not count rejected booking and check it again on approve")
+    void shouldIgnoreRejected() {
+        long itemId = createItem();
+        BookingDto rejected = book(itemId, 0, 24);
+        bookingService.updateBooking(rejected.getId(), false, owner.getId());
+
+        book(itemId, 12, 36);
+
+        assertThrows(BookingOverlapException.class,
+                () -> bookingService.updateBooking(rejected.getId(), true, owner.getId()));
+    }
+
+    @Test
+    @DisplayName("should create exactly one of concurrent bookings for the same dates")
+    void shouldCreateOneOfConcurrent() {
+        long itemId = createItem();
+
+        List<Boolean> results = race(i -> BookingDtoIn.builder()
+                .itemId(itemId)
+                .start(base)
+                .end(base.plusDays(1))
+                .build());
+
+        assertThat(results.stream().filter(created -> created).count(), equalTo(1L));
+        assertThat(bookingsOf(itemId).size(), equalTo(1));
+    }
+
+    //запуск: mvn test -Dtest=BookingOverlapTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("bookings of different items should not wait for each other")
+    void shouldNotSerializeDifferentItems() {
+        int rounds = 20;
+        long hotItemId = createItem();
+        List<Long> coldItemIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            coldItemIds.add(createItem());
+        }
+
+        long hotNanos = 0;
+        long coldNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            int offset = round * 24;
+            long begin = System.nanoTime();
+            List<Boolean> hot = race(i -> slot(hotItemId, offset, i));
+            hotNanos += System.nanoTime() - begin;
+            begin = System.nanoTime();
+            List<Boolean> cold = race(i -> slot(coldItemIds.get(i), offset, i));
+            coldNanos += System.nanoTime() - begin;
+            assertThat(hot.stream().filter(created -> created).count(), equalTo((long) THREADS));
+            assertThat(cold.stream().filter(created -> created).count(), equalTo((long) THREADS));
+        }
+
+        double hotRate = rounds * THREADS * 1e9 / hotNanos;
+        double coldRate = rounds * THREADS * 1e9 / coldNanos;
+        System.out.printf("%d потоков: одна вещь %.0f брон/с, разные вещи %.0f брон/с%n", THREADS, hotRate, coldRate);
+        assertThat(coldRate, greaterThan(0.0));
+        assertNoOverlaps(hotItemId);
+    }
+
+    private long createItem() {
+        long itemId = itemService.createItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build(), owner.getId()).getId();
+        itemIds.add(itemId);
+        return itemId;
+    }
+
+    private BookingDto book(long itemId, int fromHours, int toHours) {
+        return bookingService.createBooking(BookingDtoIn.builder()
+                .itemId(itemId)
+                .start(base.plusHours(fromHours))
+                .end(base.plusHours(toHours))
+                .build(), booker.getId());
+    }
+
+    //непересекающиеся интервалы по 45 минут внутри суток раунда
+    private BookingDtoIn slot(long itemId, int offsetHours, int i) {
+        LocalDateTime start = base.plusHours(offsetHours).plusMinutes(i * 45L);
+        return BookingDtoIn.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(start.plusMinutes(45))
+                .build();
+    }
+
+    private List<Booking> bookingsOf(long itemId) {
+        return bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId() == itemId)
+                .collect(Collectors.toList());
+    }
+
+    private void assertNoOverlaps(long itemId) {
+        List<Booking> bookings = bookingsOf(itemId);
+        bookings.sort(Comparator.comparing(Booking::getStart));
+        for (int i = 1; i < bookings.size(); i++) {
+            assertThat(bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd()), equalTo(false));
+        }
+    }
+
+    //true - бронирование создано, false - отклонено из-за пересечения
+    private List<Boolean> race(IntFunction<BookingDtoIn> booking) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                BookingDtoIn bookingDtoIn = booking.apply(i);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                        bookingService.createBooking(bookingDtoIn, booker.getId());
+                        return true;
+                    } catch (BookingOverlapException e) {
+                        return false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            futures.forEach(future -> results.add(future.join()));
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
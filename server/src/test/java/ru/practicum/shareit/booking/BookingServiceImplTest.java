@@ -4,13 +4,16 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoForItem;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
 import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
@@ -18,19 +21,27 @@ import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -96,7 +107,8 @@ public class BookingServiceImplTest {
     @DisplayName("should create booking")
     void shouldCreateBooking() {
         BookingDto bookingDto;
-        BookingDtoIn bookingDtoIn = makeBookingDto(itemDto.getId(), LocalDateTime.now().plusHours(1), LocalDateTime.now().plusDays(1));
+        BookingDtoIn bookingDtoIn = makeBookingDto(itemDto.getId(), LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MICROS),
+                LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS));
         bookingDto = bookingService.createBooking(bookingDtoIn, userDto2.getId());
 
         TypedQuery<Booking> query = em.createQuery("select b from Booking as b where b.id = :id", Booking.class);
@@ -230,8 +242,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.WAITING);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().plusHours(1), LocalDateTime.now().plusDays(5));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.REJECTED);
 
         List<BookingDto> list = bookingService.getAllBookingsByUserIdAndState(userDto2.getId(), State.ALL, 0, 2);
@@ -255,8 +267,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.WAITING);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.REJECTED);
 
         List<BookingDto> list = bookingService.getAllBookingsByUserIdAndState(userDto2.getId(), State.CURRENT, 0, 1);
@@ -316,8 +328,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.WAITING);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.WAITING);
 
         List<BookingDto> list = bookingService.getAllBookingsCurrentUser(userDto1.getId(), State.ALL, 0, 10);
@@ -333,8 +345,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.CANCELED);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.WAITING);
 
         List<BookingDto> list = bookingService.getAllBookingsCurrentUser(userDto2.getId(), State.REJECTED, 0, 10);
@@ -359,8 +371,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.CANCELED);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(1));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.WAITING);
 
         assertThrows(UserNotExistObject.class, () -> bookingService.getAllBookingsCurrentUser(9999, State.REJECTED, 0, 10));
@@ -375,8 +387,8 @@ public class BookingServiceImplTest {
         bookingDto.setStatus(Status.WAITING);
 
         BookingDto bookingDto2;
-        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(2));
-        bookingDto2 = bookingService.createBooking(bookingDtoIn, userDto2.getId());
+        BookingDtoIn bookingDtoIn2 = makeBookingDto(itemDto.getId(), LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2));
+        bookingDto2 = bookingService.createBooking(bookingDtoIn2, userDto2.getId());
         bookingDto2.setStatus(Status.REJECTED);
 
         List<BookingDto> list = bookingService.getAllBookingsByUserIdAndState(userDto2.getId(), State.ALL, 0, 1);
@@ -438,6 +450,126 @@ public class BookingServiceImplTest {
         assertThat(list.get(0).getId(), equalTo(bookingDto.getId()));
     }
 
+    @Test
+    @DisplayName("should walk owner past bookings by cursor without gaps and duplicates")
+    void shouldWalkBookingsSliceByCursor() {
+        LocalDateTime start = LocalDateTime.now().minusDays(30).withNano(0);
+        for (int i = 0; i < 7; i++) {
+            //у двух бронирований одинаковое начало, порядок между ними задает id
+            persistBooking(start.plusDays(i == 6 ? 5 : i), start.plusDays(i == 6 ? 6 : i + 1), Status.APPROVED);
+        }
+        List<Long> expected = bookingService.getAllBookingsCurrentUser(userDto1.getId(), State.PAST, 0, 100).stream()
+                .map(BookingDto::getId)
+                .sorted()
+                .collect(Collectors.toList());
+
+        List<BookingDto> walked = new ArrayList<>();
+        String after = null;
+        BookingSliceDto slice;
+        do {
+            slice = bookingService.getBookingsSliceCurrentUser(userDto1.getId(), State.PAST, after, 3);
+            walked.addAll(slice.getContent());
+            after = slice.getNext();
+        } while (slice.isHasNext());
+
+        assertThat(slice.getNext(), nullValue());
+        assertThat(walked.stream().map(BookingDto::getId).sorted().collect(Collectors.toList()), equalTo(expected));
+        for (int i = 1; i < walked.size(); i++) {
+            BookingDto previous = walked.get(i - 1);
+            BookingDto current = walked.get(i);
+            assertThat(current.getStart().isAfter(previous.getStart()), equalTo(false));
+            if (current.getStart().equals(previous.getStart())) {
+                assertThat(current.getId(), lessThan(previous.getId()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should return waiting bookings slice for booker")
+    void shouldReturnWaitingBookingsSliceForBooker() {
+        bookingService.createBooking(makeBookingDto(itemDto.getId(), LocalDateTime.now().plusHours(1), LocalDateTime.now().plusDays(1)), userDto2.getId());
+        bookingService.createBooking(makeBookingDto(itemDto.getId(), LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3)), userDto2.getId());
+
+        BookingSliceDto firstSlice = bookingService.getBookingsSliceByUserIdAndState(userDto2.getId(), State.WAITING, null, 1);
+        BookingSliceDto secondSlice = bookingService.getBookingsSliceByUserIdAndState(userDto2.getId(), State.WAITING, firstSlice.getNext(), 1);
+
+        assertThat(firstSlice.isHasNext(), equalTo(true));
+        assertThat(secondSlice.isHasNext(), equalTo(false));
+        assertThat(secondSlice.getContent().get(0).getStart().isBefore(firstSlice.getContent().get(0).getStart()), equalTo(true));
+    }
+
+    @Test
+    @DisplayName("should throw for invalid cursor")
+    void shouldThrowForInvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> bookingService.getBookingsSliceByUserIdAndState(userDto2.getId(), State.ALL, "не курсор", 10));
+    }
+
+    //запуск: mvn test -Dtest=BookingServiceImplTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("deep cursor page should be as fast as first page")
+    void shouldReadDeepSliceAsFastAsFirst() {
+        LocalDateTime start = LocalDateTime.now().minusYears(10).withNano(0);
+        for (int i = 0; i < 100_000; i++) {
+            persistBooking(start.plusMinutes(i), start.plusMinutes(i + 1), Status.APPROVED);
+            if (i % 1000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        Booking deepBooking = em.createQuery("select b from Booking b order by b.start asc, b.id asc", Booking.class)
+                .setFirstResult(10)
+                .setMaxResults(1)
+                .getSingleResult();
+        String deepCursor = BookingCursor.of(deepBooking).encode();
+
+        long firstPage = measureSlice(null);
+        long deepPage = measureSlice(deepCursor);
+
+        System.out.println("Страница по курсору, мкс: первая = " + firstPage + ", 10000-я = " + deepPage);
+        assertThat(deepPage, lessThan(firstPage * 3));
+    }
+
+    private long measureSlice(String after) {
+        for (int i = 0; i < 50; i++) {
+            bookingService.getBookingsSliceCurrentUser(userDto1.getId(), State.PAST, after, 10);
+        }
+        int iterations = 200;
+        long begin = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bookingService.getBookingsSliceCurrentUser(userDto1.getId(), State.PAST, after, 10);
+        }
+        return (System.nanoTime() - begin) / iterations / 1000;
+    }
+
+    private void persistBooking(LocalDateTime start, LocalDateTime end, Status status) {
+        em.persist(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(em.getReference(Item.class, itemDto.getId()))
+                .booker(em.getReference(User.class, userDto2.getId()))
+                .status(status)
+                .build());
+    }
+
+    @Test
+    @DisplayName("should change booking etag on approve and hide it from other users")
+    void shouldChangeBookingEtag() {
+        BookingDto bookingDto = bookingService.createBooking(makeBookingDto(itemDto.getId(), LocalDateTime.now().plusHours(1),
+                LocalDateTime.now().plusDays(1)), userDto2.getId());
+        String etag = bookingService.getBookingEtag(bookingDto.getId(), userDto2.getId());
+        assertThat(etag, notNullValue());
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), userDto1.getId()), equalTo(etag));
+
+        bookingService.updateBooking(bookingDto.getId(), true, userDto1.getId());
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), userDto2.getId()), not(equalTo(etag)));
+
+        long strangerId = userService.createUser(UserDto.builder().name("test3").email("test@mail3.ru").build()).getId();
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), strangerId), nullValue());
+    }
+
     private BookingDtoIn makeBookingDto(Long id, LocalDateTime start, LocalDateTime end) {
         return BookingDtoIn.builder()
                 .itemId(id)
@@ -0,0 +1,291 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoMapper;
+import ru.practicum.shareit.booking.dto.BookingRow;
+import ru.practicum.shareit.booking.dto.BookingSliceDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class BookingServiceQueryCountTest {
+
+    private final EntityManager em;
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    private User owner;
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        owner = User.builder()
+                .name("Owner")
+                .email("owner@mail.ru")
+                .build();
+        em.persist(owner);
+        booker = User.builder()
+                .name("Booker")
+                .email("booker@mail.ru")
+                .build();
+        em.persist(booker);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User requestor = User.builder()
+                    .name("Requestor " + i)
+                    .email("requestor" + i + "@mail.ru")
+                    .build();
+            em.persist(requestor);
+            ItemRequest itemRequest = ItemRequest.builder()
+                    .description("Запрос " + i)
+                    .created(LocalDateTime.now())
+                    .requestor(requestor)
+                    .build();
+            em.persist(itemRequest);
+            Item item = Item.builder()
+                    .name("Вещь " + i)
+                    .description("Описание " + i)
+                    .available(true)
+                    .owner(owner)
+                    .itemRequest(itemRequest)
+                    .build();
+            em.persist(item);
+            items.add(item);
+        }
+        //записей больше, чем помещается на страницу: раньше это приводило к дополнительному count
+        for (int i = 0; i < 25; i++) {
+            em.persist(Booking.builder()
+                    .start(LocalDateTime.now().plusDays(i + 1))
+                    .end(LocalDateTime.now().plusDays(i + 2))
+                    .item(items.get(i % items.size()))
+                    .booker(booker)
+                    .status(Status.WAITING)
+                    .build());
+        }
+        em.flush();
+    }
+
+    @Test
+    @DisplayName("should load booking page with item, owner, request and booker in one statement")
+    void shouldLoadBookingPageInOneStatement() throws Exception {
+        Pageable page = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+        LocalDateTime now = LocalDateTime.now();
+
+        assertOneStatement(() -> fromRows(bookingRepository.findByBooker_Id(booker.getId(), page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findByBooker_IdAndStartIsAfter(booker.getId(), now, page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findByBooker_IdAndStatus(booker.getId(), Status.WAITING, page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findByItem_Owner_Id(owner.getId(), page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findByItem_Owner_IdAndStartIsAfter(owner.getId(), now, page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findByItem_Owner_IdAndStatus(owner.getId(), Status.WAITING, page)));
+        assertOneStatement(() -> fromRows(bookingRepository.findSliceByBooker(booker.getId(), BookingCursor.first().getStart(),
+                BookingCursor.first().getId(), PageRequest.of(0, 10)).getContent()));
+        assertOneStatement(() -> fromRows(bookingRepository.findSliceByOwner(owner.getId(), BookingCursor.first().getStart(),
+                BookingCursor.first().getId(), PageRequest.of(0, 10)).getContent()));
+        assertOneStatement(() -> fromEntities(bookingRepository.findAllBookingByUserIdAfter(booker.getId(), 0, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    @DisplayName("should read booking pages without hydrating entities")
+    void shouldReadBookingPagesWithoutEntities() {
+        em.clear();
+        statistics.clear();
+        List<BookingDto> bookerPage = bookingService.getAllBookingsByUserIdAndState(booker.getId(), State.ALL, 0, 10);
+        List<BookingDto> ownerPage = bookingService.getAllBookingsCurrentUser(owner.getId(), State.ALL, 0, 10);
+        BookingSliceDto bookerSlice = bookingService.getBookingsSliceByUserIdAndState(booker.getId(), State.ALL, null, 10);
+        BookingSliceDto ownerSlice = bookingService.getBookingsSliceCurrentUser(owner.getId(), State.ALL, null, 10);
+
+        assertThat(bookerPage.size(), equalTo(10));
+        assertThat(ownerPage.size(), equalTo(10));
+        assertThat(bookerSlice.getContent().size(), equalTo(10));
+        assertThat(ownerSlice.getContent().size(), equalTo(10));
+        assertThat(ownerPage.get(0).getItem().getItemRequest().getRequestor().getName(), startsWith("Requestor"));
+        assertThat(statistics.getEntityStatistics(Booking.class.getName()).getLoadCount(), equalTo(0L));
+        assertThat(statistics.getEntityStatistics(Item.class.getName()).getLoadCount(), equalTo(0L));
+    }
+
+    @Test
+    @DisplayName("should not depend on page size for booking listing")
+    void shouldListBookingsWithFixedNumberOfStatements() {
+        em.clear();
+        statistics.clear();
+        bookingService.getAllBookingsCurrentUser(owner.getId(), State.ALL, 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        em.clear();
+        statistics.clear();
+        bookingService.getAllBookingsCurrentUser(owner.getId(), State.ALL, 0, 20);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(smallPageStatements));
+    }
+
+    @Test
+    @DisplayName("should not run count query for booker page")
+    void shouldNotCountForBookerPage() {
+        em.clear();
+        statistics.clear();
+        List<BookingDto> bookings = bookingService.getAllBookingsByUserIdAndState(booker.getId(), State.ALL, 10, 10);
+
+        assertThat(bookings.size(), equalTo(10));
+        assertThat(statistics.getQueryExecutionCount(), equalTo(1L));
+
+        statistics.clear();
+        long total = bookingService.countBookingsByUserIdAndState(booker.getId(), State.ALL);
+
+        assertThat(total, equalTo(25L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    @DisplayName("should not run count query for owner page")
+    void shouldNotCountForOwnerPage() {
+        em.clear();
+        statistics.clear();
+        List<BookingDto> bookings = bookingService.getAllBookingsCurrentUser(owner.getId(), State.WAITING, 20, 10);
+
+        assertThat(bookings.size(), equalTo(5));
+        assertThat(statistics.getQueryExecutionCount(), equalTo(1L));
+        assertThat(bookingService.countBookingsCurrentUser(owner.getId(), State.WAITING), equalTo(25L));
+    }
+
+    //запуск: mvn test -Dtest=BookingServiceQueryCountTest -Dbenchmark=true
+    //для профиля аллокаций: -DargLine="-XX:StartFlightRecording=filename=bookings.jfr,settings=profile"
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("projection page should allocate less than entity page")
+    void shouldAllocateLessForProjectionPage() {
+        //история бронирований пользователя: разные вещи разных владельцев
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            User itemOwner = User.builder()
+                    .name("Владелец " + i)
+                    .email("owner" + i + "@yandex.ru")
+                    .build();
+            em.persist(itemOwner);
+            Item item = Item.builder()
+                    .name("Вещь для аренды " + i)
+                    .description("Описание вещи для аренды " + i)
+                    .available(true)
+                    .owner(itemOwner)
+                    .build();
+            em.persist(item);
+            items.add(item);
+        }
+        for (int i = 0; i < 2000; i++) {
+            em.persist(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(i + 2))
+                    .end(LocalDateTime.now().minusDays(i + 1))
+                    .item(items.get(i % items.size()))
+                    .booker(booker)
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        em.flush();
+        em.clear();
+        Supplier<List<BookingDto>> entities = () -> fromEntities(em.createQuery("select b from Booking b " +
+                        "join fetch b.item i join fetch i.owner join fetch b.booker " +
+                        "left join fetch i.itemRequest r left join fetch r.requestor " +
+                        "where b.booker.id = ?1 order by b.start desc", Booking.class)
+                .setParameter(1, booker.getId())
+                .setMaxResults(1000)
+                .getResultList());
+        Supplier<List<BookingDto>> rows = () -> fromRows(em.createQuery("select new ru.practicum.shareit.booking.dto.BookingRow(" +
+                        "b.id, b.start, b.end, b.status, bk.id, bk.name, bk.email, i.id, i.name, i.description, i.available, " +
+                        "o.id, o.name, o.email, r.id, r.description, r.created, rq.id, rq.name, rq.email) from Booking b " +
+                        "join b.item i join i.owner o join b.booker bk left join i.itemRequest r left join r.requestor rq " +
+                        "where bk.id = ?1 order by b.start desc", BookingRow.class)
+                .setParameter(1, booker.getId())
+                .setMaxResults(1000)
+                .getResultList());
+
+        long entityBytes = measureAllocation(entities);
+        long rowBytes = measureAllocation(rows);
+
+        System.out.println("Аллокации на страницу из 1000 бронирований, КБ: сущности = " + entityBytes / 1024
+                + ", BookingRow = " + rowBytes / 1024);
+        assertThat(rowBytes, lessThan(entityBytes));
+    }
+
+    private long measureAllocation(Supplier<List<BookingDto>> listing) {
+        ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 20; i++) {
+            listing.get();
+            em.clear();
+        }
+        int iterations = 50;
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            listing.get();
+            total += threadBean.getThreadAllocatedBytes(threadId) - before;
+            em.clear();
+        }
+        return total / iterations;
+    }
+
+    private void assertOneStatement(Supplier<List<BookingDto>> listing) throws Exception {
+        em.clear();
+        statistics.clear();
+        List<BookingDto> bookings = listing.get();
+        //сериализация BookingDto не должна натыкаться на неинициализированные прокси
+        String json = objectMapper.writeValueAsString(bookings);
+
+        assertThat(bookings.size(), equalTo(10));
+        assertThat(json, containsString("Requestor"));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    private List<BookingDto> fromRows(List<BookingRow> rows) {
+        return BookingDtoMapper.toBookingDtos(rows);
+    }
+
+    private List<BookingDto> fromEntities(List<Booking> bookings) {
+        return bookings.stream()
+                .map(BookingDtoMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+}
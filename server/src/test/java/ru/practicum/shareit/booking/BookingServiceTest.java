@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,19 +13,26 @@ import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
 import ru.practicum.shareit.exception.BookingNotExistException;
 import ru.practicum.shareit.exception.ItemNotExistException;
 import ru.practicum.shareit.exception.UserIsOwnerException;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,7 +67,10 @@ public class BookingServiceTest {
         itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
         bookingRepository = mock(BookingRepository.class);
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository,
+                new ItemViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+                new UserExistenceCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)), new ItemBookingLocks(16),
+                new ItemAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)));
         user = User.builder()
                 .id(1L)
                 .name("test")
@@ -93,8 +104,8 @@ public class BookingServiceTest {
 
         bookingDtoIn = BookingDtoIn.builder()
                 .itemId(1L)
-                .start(LocalDateTime.now().plusHours(1))
-                .end(LocalDateTime.now().plusDays(1))
+                .start(LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.MICROS))
+                .end(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MICROS))
                 .build();
 
         booking = Booking.builder()
@@ -172,7 +183,7 @@ public class BookingServiceTest {
         List<Booking> bookings = new ArrayList<>();
         bookings.add(booking);
 
-        when(bookingRepository.findAll())
+        when(bookingRepository.findAllBookingByUserIdAfter(eq(1L), eq(0L), any()))
                 .thenReturn(bookings);
 
         List<BookingDto> receivedBookingList = bookingService.getAllBookings(1);
@@ -184,6 +195,32 @@ public class BookingServiceTest {
         assertThat(receivedBookingList.get(0).getItem(), equalTo(booking.getItem()));
     }
 
+    @Test
+    @DisplayName("should read all bookings page by page")
+    void shouldGetAllBookingPageByPage() {
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user));
+        booking.setId(500L);
+        Booking lastBooking = Booking.builder()
+                .id(501L)
+                .start(bookingDtoIn.getStart())
+                .end(bookingDtoIn.getEnd())
+                .item(item)
+                .booker(user)
+                .status(Status.WAITING)
+                .build();
+
+        when(bookingRepository.findAllBookingByUserIdAfter(eq(1L), eq(0L), any()))
+                .thenReturn(Collections.nCopies(500, booking));
+        when(bookingRepository.findAllBookingByUserIdAfter(eq(1L), eq(500L), any()))
+                .thenReturn(List.of(lastBooking));
+
+        List<BookingDto> receivedBookingList = bookingService.getAllBookings(1);
+
+        assertThat(receivedBookingList.size(), equalTo(501));
+        assertThat(receivedBookingList.get(500).getId(), equalTo(lastBooking.getId()));
+    }
+
     @Test
     @DisplayName("should find booking by Id")
     void shouldReturnBookingById() {
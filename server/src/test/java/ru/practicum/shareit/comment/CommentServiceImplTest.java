@@ -4,11 +4,14 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.LastBookingsNotExistException;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
@@ -18,6 +21,7 @@ import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.service.CommentService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoIn;
@@ -25,12 +29,16 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.persistence.EntityManager;
 
 import java.time.LocalDateTime;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -124,4 +132,79 @@ public class CommentServiceImplTest {
 
         assertThrows(LastBookingsNotExistException.class, () -> commentService.createComment(itemDto.getId(), commentDtoIn, userDto2.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should create comment after approved finished booking")
+    void shouldCreateCommentAfterApprovedBooking() {
+        persistPastBooking(itemDto.getId(), userDto2.getId(), Status.APPROVED, 1);
+        CommentDtoIn commentDtoIn = new CommentDtoIn();
+        commentDtoIn.setText("CommentTest");
+
+        CommentDto createdComment = commentService.createComment(itemDto.getId(), commentDtoIn, userDto2.getId());
+
+        assertThat(createdComment.getText(), equalTo("CommentTest"));
+        assertThat(createdComment.getAuthorName(), equalTo(userDto2.getName()));
+    }
+
+    @Test
+    @DisplayName("should not create comment after rejected booking")
+    void shouldNotCreateCommentAfterRejectedBooking() {
+        persistPastBooking(itemDto.getId(), userDto2.getId(), Status.REJECTED, 1);
+        CommentDtoIn commentDtoIn = new CommentDtoIn();
+        commentDtoIn.setText("CommentTest");
+
+        assertThrows(LastBookingsNotExistException.class, () -> commentService.createComment(itemDto.getId(), commentDtoIn, userDto2.getId()));
+    }
+
+    //запуск: mvn test -Dtest=CommentServiceImplTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("comment creation time should not depend on booker history")
+    void shouldCreateCommentIndependentOfBookingHistory() {
+        ItemDto otherItem = itemService.createItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build(), userDto.getId());
+        persistPastBooking(itemDto.getId(), userDto2.getId(), Status.APPROVED, 1);
+        long shortHistory = measureCreateComment();
+
+        persistPastBooking(otherItem.getId(), userDto2.getId(), Status.APPROVED, 50_000);
+        long longHistory = measureCreateComment();
+
+        System.out.println("Создание комментария, мкс: 1 бронирование = " + shortHistory + ", 50k = " + longHistory);
+        assertThat(longHistory, lessThan(shortHistory * 5));
+    }
+
+    private long measureCreateComment() {
+        CommentDtoIn commentDtoIn = new CommentDtoIn();
+        commentDtoIn.setText("CommentTest");
+        for (int i = 0; i < 50; i++) {
+            commentService.createComment(itemDto.getId(), commentDtoIn, userDto2.getId());
+        }
+        int iterations = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            commentService.createComment(itemDto.getId(), commentDtoIn, userDto2.getId());
+        }
+        return (System.nanoTime() - start) / iterations / 1000;
+    }
+
+    private void persistPastBooking(long itemId, long bookerId, Status status, int count) {
+        for (int i = 0; i < count; i++) {
+            em.persist(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(i + 2))
+                    .end(LocalDateTime.now().minusDays(i + 1))
+                    .item(em.getReference(Item.class, itemId))
+                    .booker(em.getReference(User.class, bookerId))
+                    .status(status)
+                    .build());
+            if (i % 1000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+}
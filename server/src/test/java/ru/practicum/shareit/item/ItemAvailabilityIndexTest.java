@@ -0,0 +1,220 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ItemAvailabilityIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new ItemAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("should build tree from repository once and return gaps between bookings")
+    void shouldReturnFreeSlots() {
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyList()))
+                .thenReturn(List.of(interval(1L, 10, 20), interval(2L, 20, 30), interval(3L, 50, 60)));
+
+        assertThat(index.freeSlots(1L, hour(0), hour(100)),
+                equalTo(List.of(slot(0, 10), slot(30, 50), slot(60, 100))));
+        assertThat(index.freeSlots(1L, hour(15), hour(55)), equalTo(List.of(slot(30, 50))));
+        assertThat(index.freeSlots(1L, hour(12), hour(18)), equalTo(List.of()));
+        assertThat(index.freeSlots(1L, hour(60), hour(70)), equalTo(List.of(slot(60, 70))));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(1L), anyList());
+    }
+
+    @Test
+    @DisplayName("should apply created and rejected bookings to built tree")
+    void shouldUpdateTree() {
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyList()))
+                .thenReturn(List.of(interval(1L, 10, 20)));
+        index.freeSlots(1L, hour(0), hour(40));
+
+        Booking booking = booking(2L, 25, 30, Status.WAITING);
+        index.update(booking);
+        assertThat(index.freeSlots(1L, hour(0), hour(40)), equalTo(List.of(slot(0, 10), slot(20, 25), slot(30, 40))));
+
+        booking.setStatus(Status.REJECTED);
+        index.update(booking);
+        assertThat(index.freeSlots(1L, hour(0), hour(40)), equalTo(List.of(slot(0, 10), slot(20, 40))));
+
+        booking.setStatus(Status.APPROVED);
+        index.update(booking);
+        index.update(booking);
+        assertThat(index.freeSlots(1L, hour(0), hour(40)), equalTo(List.of(slot(0, 10), slot(20, 25), slot(30, 40))));
+        verify(bookingRepository, times(1)).findIntervalsByItemId(eq(1L), anyList());
+    }
+
+    @Test
+    @DisplayName("should rebuild tree after ttl to see bookings made by other instances")
+    void shouldRebuildTreeAfterTtl() throws InterruptedException {
+        ItemAvailabilityIndex expiringIndex = new ItemAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(), 100,
+                Duration.ofMillis(50));
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyList()))
+                .thenReturn(List.of(interval(1L, 10, 20)))
+                .thenReturn(List.of(interval(1L, 10, 20), interval(2L, 25, 30)));
+        assertThat(expiringIndex.freeSlots(1L, hour(0), hour(40)), equalTo(List.of(slot(0, 10), slot(20, 40))));
+
+        Thread.sleep(100);
+
+        assertThat(expiringIndex.freeSlots(1L, hour(0), hour(40)),
+                equalTo(List.of(slot(0, 10), slot(20, 25), slot(30, 40))));
+        verify(bookingRepository, times(2)).findIntervalsByItemId(eq(1L), anyList());
+    }
+
+    @Test
+    @DisplayName("should match full scan after random bookings and rejections")
+    void shouldMatchFullScan() {
+        when(bookingRepository.findIntervalsByItemId(eq(1L), anyList())).thenReturn(List.of());
+        index.freeSlots(1L, hour(0), hour(1));
+        Random random = new Random(42);
+        List<Booking> bookings = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            int start = random.nextInt(10_000);
+            Booking booking = booking(id, start, start + 1 + random.nextInt(20), Status.WAITING);
+            bookings.add(booking);
+            index.update(booking);
+            if (random.nextInt(3) == 0) {
+                Booking rejected = bookings.get(random.nextInt(bookings.size()));
+                rejected.setStatus(Status.REJECTED);
+                index.update(rejected);
+            }
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(10_000);
+            int to = from + 1 + random.nextInt(500);
+            assertThat(index.freeSlots(1L, hour(from), hour(to)), equalTo(fullScan(bookings, hour(from), hour(to))));
+        }
+    }
+
+    //запуск: mvn test -Dtest=ItemAvailabilityIndexTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("free slots query time should not grow with number of bookings")
+    void shouldQueryIndependentOfBookingCount() {
+        long fewBookings = measureQuery(10_000);
+        long manyBookings = measureQuery(1_000_000);
+
+        System.out.println("Свободные даты за неделю, нс: 10k бронирований = " + fewBookings
+                + ", 1M = " + manyBookings);
+        assertThat(manyBookings, lessThan(fewBookings * 10));
+    }
+
+    private long measureQuery(int bookingCount) {
+        ItemAvailabilityIndex availabilityIndex = new ItemAvailabilityIndex(mock(BookingRepository.class),
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        //дерево строится первым запросом, дальше бронирования добавляются по одному
+        availabilityIndex.freeSlots(1L, hour(0), hour(1));
+        for (long id = 1; id <= bookingCount; id++) {
+            availabilityIndex.update(booking(id, (int) id * 2, (int) id * 2 + 1, Status.APPROVED));
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            int from = random.nextInt(bookingCount * 2);
+            availabilityIndex.freeSlots(1L, hour(from), hour(from + 168));
+        }
+        int iterations = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            int from = random.nextInt(bookingCount * 2);
+            availabilityIndex.freeSlots(1L, hour(from), hour(from + 168));
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    //тот же расчет полным перебором отсортированных бронирований
+    private List<FreeSlotDto> fullScan(List<Booking> bookings, LocalDateTime from, LocalDateTime to) {
+        List<Booking> busy = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (booking.getStatus() != Status.REJECTED && booking.getStart().isBefore(to) && booking.getEnd().isAfter(from)) {
+                busy.add(booking);
+            }
+        }
+        busy.sort(Comparator.comparing(Booking::getStart));
+        List<FreeSlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (Booking booking : busy) {
+            if (booking.getStart().isAfter(cursor)) {
+                slots.add(new FreeSlotDto(cursor, booking.getStart()));
+            }
+            if (booking.getEnd().isAfter(cursor)) {
+                cursor = booking.getEnd();
+            }
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new FreeSlotDto(cursor, to));
+        }
+        return slots;
+    }
+
+    private static LocalDateTime hour(int hours) {
+        return BASE.plusHours(hours);
+    }
+
+    private static FreeSlotDto slot(int from, int to) {
+        return new FreeSlotDto(hour(from), hour(to));
+    }
+
+    private static Booking booking(long id, int from, int to, Status status) {
+        return Booking.builder()
+                .id(id)
+                .item(Item.builder().id(1L).build())
+                .start(hour(from))
+                .end(hour(to))
+                .status(status)
+                .build();
+    }
+
+    private static BookingIntervalView interval(long id, int from, int to) {
+        return new BookingIntervalView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return hour(from);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return hour(to);
+            }
+        };
+    }
+}
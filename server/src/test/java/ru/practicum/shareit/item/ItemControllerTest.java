@@ -9,14 +9,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.exception.ItemNotExistException;
 import ru.practicum.shareit.exception.UserNotExistObject;
 import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.service.CommentService;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoMapper;
+import ru.practicum.shareit.item.importer.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -30,6 +33,7 @@ import java.util.List;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,6 +53,9 @@ public class ItemControllerTest {
     @MockBean
     private CommentService commentService;
 
+    @MockBean
+    private ItemImporter itemImporter;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -132,6 +139,45 @@ public class ItemControllerTest {
     }
 
 
+    @Test
+    @DisplayName("should save items batch")
+    void saveItemsBatch() throws Exception {
+        when(itemService.createItems(any(), anyLong()))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(post("/items/batch")
+                        .content(mapper.writeValueAsString(List.of(itemDto)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HEADER, 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(itemDto.getName())));
+
+        verify(itemService, times(1))
+                .createItems(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("should import items from ndjson")
+    void importItems() throws Exception {
+        when(itemImporter.importItems(any(), eq(1L), eq(1)))
+                .thenReturn(outputStream -> outputStream.write("{\"line\":1,\"id\":1}\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mvc.perform(post("/items/import")
+                        .content(mapper.writeValueAsString(itemDto))
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(HEADER, 1))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":1,\"id\":1}\n"));
+    }
+
     @Test
     @DisplayName("should return all items")
     void shouldReturnAllItems() throws Exception {
@@ -255,4 +301,50 @@ public class ItemControllerTest {
                 .getItemById(anyLong(), anyLong());
 
     }
+
+    @Test
+    @DisplayName("should answer not modified without loading item")
+    void shouldAnswerNotModifiedForSameEtag() throws Exception {
+        when(itemService.getItemEtag(1L, 1L))
+                .thenReturn("i3-c0.0");
+
+        mvc.perform(get("/items/1").header(HEADER, 1).header("If-None-Match", "\"i3-c0.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"i3-c0.0\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never())
+                .getItemById(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("should return item with etag when version changed")
+    void shouldReturnItemForChangedEtag() throws Exception {
+        when(itemService.getItemEtag(1L, 1L))
+                .thenReturn("i4-c0.0");
+        when(itemService.getItemById(1L, 1L))
+                .thenReturn(itemDto);
+
+        mvc.perform(get("/items/1").header(HEADER, 1).header("If-None-Match", "\"i3-c0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"i4-c0.0\""))
+                .andExpect(jsonPath("$.name", is(itemDto.getName())));
+    }
+
+    @Test
+    @DisplayName("should return free slots of item")
+    void shouldReturnItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 3, 10, 0);
+        when(itemService.getItemAvailability(1L, 1L, from, to))
+                .thenReturn(List.of(new FreeSlotDto(from, from.plusDays(1))));
+
+        mvc.perform(get("/items/1/availability").header(HEADER, 1)
+                        .param("from", "2030-01-01T10:00:00")
+                        .param("to", "2030-01-03T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-02T10:00:00")));
+    }
 }
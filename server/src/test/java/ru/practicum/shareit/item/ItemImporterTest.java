@@ -0,0 +1,146 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.dto.ItemImportResult;
+import ru.practicum.shareit.item.importer.ItemImporter;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//без @Transactional: каждая пачка импорта сохраняется в своей транзакции
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class ItemImporterTest {
+
+    private final ItemImporter itemImporter;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ObjectMapper objectMapper;
+
+    private final List<Long> itemIds = new ArrayList<>();
+    private UserDto owner;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userService.createUser(UserDto.builder()
+                .name("Importer")
+                .email("importer@mail.ru")
+                .build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAllByIdInBatch(itemIds);
+        itemIds.forEach(itemSearchIndex::remove);
+        userService.deleteUserById(owner.getId());
+    }
+
+    @Test
+    @DisplayName("should import valid lines and report invalid ones")
+    void shouldImportLines() throws IOException {
+        String body = "{\"name\":\"Рубанок\",\"description\":\"Строгает\",\"available\":true}\n" +
+                "{\"name\":\"Рубанок\"\n" +
+                "\n" +
+                "{\"name\":\"Стамеска\",\"description\":\"\",\"available\":true}\n" +
+                "{\"name\":\"Киянка\",\"description\":\"Стучит\",\"available\":false,\"requestId\":999999}\n" +
+                "{\"name\":\"Струбцина\",\"description\":\"Зажимает\",\"available\":true}\n";
+
+        List<ItemImportResult> results = importItems(body, 1);
+
+        assertThat(results, hasSize(5));
+        assertThat(results.get(0).getLine(), equalTo(1));
+        assertThat(results.get(0).getId(), notNullValue());
+        assertThat(results.get(1).getLine(), equalTo(2));
+        assertThat(results.get(1).getError(), equalTo("Некорректный JSON"));
+        assertThat(results.get(2).getLine(), equalTo(4));
+        assertThat(results.get(2).getError(), notNullValue());
+        assertThat(results.get(3).getError(), equalTo("Запрос не найден"));
+        assertThat(results.get(4).getLine(), equalTo(6));
+        assertThat(results.get(4).getError(), nullValue());
+        assertThat(itemService.getItemById(results.get(4).getId(), owner.getId()).getName(), equalTo("Струбцина"));
+    }
+
+    @Test
+    @DisplayName("should import more lines than one chunk")
+    void shouldImportSeveralChunks() throws IOException {
+        int count = ItemImporter.CHUNK_SIZE * 2 + 1;
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"name\":\"Лобзик ").append(i).append("\",\"description\":\"Пилит\",\"available\":true}\n");
+        }
+
+        List<ItemImportResult> results = importItems(body.toString(), 101);
+
+        assertThat(results, hasSize(count));
+        assertThat(results.get(0).getLine(), equalTo(101));
+        assertThat(results.get(count - 1).getLine(), equalTo(100 + count));
+        assertThat(itemService.countAllItem(owner.getId()), equalTo((long) count));
+        assertThat(itemService.countSearchItems("лобзик"), equalTo((long) count));
+    }
+
+    @Test
+    @DisplayName("should reject line longer than limit without reading it into memory")
+    void shouldRejectTooLongLine() throws IOException {
+        String body = "{\"name\":\"Рубанок\",\"description\":\"Строгает\",\"available\":true}\r\n" +
+                "{\"name\":\"Рубанок\",\"description\":\"" + "я".repeat(70_000) + "\",\"available\":true}\n" +
+                "{\"name\":\"Струбцина\",\"description\":\"Зажимает\",\"available\":true}";
+
+        List<ItemImportResult> results = importItems(body, 1);
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0).getError(), nullValue());
+        assertThat(results.get(1).getError(), equalTo("Строка длиннее 65536 символов"));
+        assertThat(results.get(2).getLine(), equalTo(3));
+        assertThat(results.get(2).getError(), nullValue());
+        assertThat(itemService.countAllItem(owner.getId()), equalTo(2L));
+    }
+
+    @Test
+    @DisplayName("should not import items for not exist user")
+    void shouldNotImportForUnknownUser() {
+        assertThrows(UserNotExistObject.class, () -> itemImporter.importItems(
+                new ByteArrayInputStream(new byte[0]), 999999L, 1));
+    }
+
+    private List<ItemImportResult> importItems(String body, int firstLine) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        itemImporter.importItems(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), owner.getId(), firstLine)
+                .writeTo(out);
+        List<ItemImportResult> results = new ArrayList<>();
+        try (MappingIterator<ItemImportResult> iterator = objectMapper.readerFor(ItemImportResult.class)
+                .readValues(out.toByteArray())) {
+            iterator.forEachRemaining(results::add);
+        }
+        results.stream()
+                .filter(result -> result.getId() != null)
+                .forEach(result -> itemIds.add(result.getId()));
+        return results;
+    }
+}
@@ -4,9 +4,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.config.SecondLevelCacheConfig;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -19,6 +21,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
 
 @DataJpaTest
+@Import(SecondLevelCacheConfig.class)
 @DisplayName("Item Repository")
 public class ItemRepositoryTest {
     @Autowired
@@ -35,11 +38,11 @@ public class ItemRepositoryTest {
 
     @BeforeEach
     public void beforeEach() {
-        user1 = userRepository.save(new User(1L, "Ваня", "иванов@mail.ru"));
-        item1 = itemRepository.save(new Item(1L, "Вещь1", "Умеет что-то делать", true, user1, null));
+        user1 = userRepository.save(new User(1L, "Ваня", "иванов@mail.ru", 0));
+        item1 = itemRepository.save(new Item(1L, "Вещь1", "Умеет что-то делать", true, user1, null, 0));
 
-        user2 = userRepository.save(new User(2L, "Александр", "смирнов@mail.ru"));
-        item2 = itemRepository.save(new Item(2L, "Вещь2", "Ничего не умеет делать", true, user2, null));
+        user2 = userRepository.save(new User(2L, "Александр", "смирнов@mail.ru", 0));
+        item2 = itemRepository.save(new Item(2L, "Вещь2", "Ничего не умеет делать", true, user2, null, 0));
     }
 
     @Test
@@ -62,29 +65,16 @@ public class ItemRepositoryTest {
         assertThat(items.size(), equalTo(0));
     }
 
-    @Test
-    @DisplayName("should find search items")
-    void shouldSearchItemsWithPagination() {
-        Pageable page = PageRequest.of(0, 1);
-        Page<Item> items = itemRepository.searchItemsPageable("что-то делать", page, 1);
-
-        assertThat(items.getContent().size(), equalTo(1));
-        assertThat(items.getContent().get(0).getId(), equalTo(item1.getId()));
-        assertThat(items.getContent().get(0).getName(), equalTo("Вещь1"));
-        assertThat(items.getContent().get(0).getDescription(), equalTo("Умеет что-то делать"));
-        assertThat(items.getContent().get(0).getAvailable(), equalTo(true));
-    }
-
     @Test
     @DisplayName("should return items by owner id with pagination")
     void shouldReturnAllByOwnerIdOrderByWithPagination() {
         Pageable page = PageRequest.of(0, 10);
-        Page<Item> items = itemRepository.findAllByOwnerId(user1.getId(), page);
+        List<ItemDto> items = itemRepository.findAllByOwnerId(user1.getId(), page);
 
-        assertThat(items.getContent().size(), equalTo(1));
-        assertThat(items.getContent().get(0).getId(), equalTo(item1.getId()));
-        assertThat(items.getContent().get(0).getName(), equalTo("Вещь1"));
-        assertThat(items.getContent().get(0).getDescription(), equalTo("Умеет что-то делать"));
-        assertThat(items.getContent().get(0).getAvailable(), equalTo(true));
+        assertThat(items.size(), equalTo(1));
+        assertThat(items.get(0).getId(), equalTo(item1.getId()));
+        assertThat(items.get(0).getName(), equalTo("Вещь1"));
+        assertThat(items.get(0).getDescription(), equalTo("Умеет что-то делать"));
+        assertThat(items.get(0).getAvailable(), equalTo(true));
     }
 }
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+
+public class ItemSearchIndexTest {
+
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        itemSearchIndex = new ItemSearchIndex(mock(ItemRepository.class));
+    }
+
+    @Test
+    @DisplayName("should rank name matches above description matches")
+    void shouldRankNameMatchesFirst() {
+        itemSearchIndex.index(makeItem(1L, "Дрель", "Пила в комплект не входит", true));
+        itemSearchIndex.index(makeItem(2L, "Пила", "Пилит и пилит", true));
+        itemSearchIndex.index(makeItem(3L, "Пилатес-мяч", "Для тренировок", true));
+
+        assertThat(itemSearchIndex.search("ПиЛа", 0, 10), equalTo(List.of(2L, 3L, 1L)));
+    }
+
+    @Test
+    @DisplayName("should return only available items with all query words")
+    void shouldReturnOnlyAvailableItemsWithAllWords() {
+        itemSearchIndex.index(makeItem(1L, "Дрель ударная", "Сверлит бетон", true));
+        itemSearchIndex.index(makeItem(2L, "Дрель", "Аккумуляторная", true));
+        itemSearchIndex.index(makeItem(3L, "Дрель ударная", "Сверлит бетон", false));
+
+        assertThat(itemSearchIndex.search("дрель бетон", 0, 10), equalTo(List.of(1L)));
+        assertThat(itemSearchIndex.search("", 0, 10), equalTo(List.of()));
+    }
+
+    @Test
+    @DisplayName("should reindex item after update")
+    void shouldReindexItemAfterUpdate() {
+        Item item = makeItem(1L, "Дрель", "Сверлит", true);
+        itemSearchIndex.index(item);
+
+        item.setName("Отвертка");
+        item.setAvailable(false);
+        itemSearchIndex.index(item);
+        assertThat(itemSearchIndex.search("дрель", 0, 10), equalTo(List.of()));
+        assertThat(itemSearchIndex.search("отвертка", 0, 10), equalTo(List.of()));
+
+        item.setAvailable(true);
+        itemSearchIndex.index(item);
+        assertThat(itemSearchIndex.search("отвертка", 0, 10), equalTo(List.of(1L)));
+
+        itemSearchIndex.remove(1L);
+        assertThat(itemSearchIndex.search("отвертка", 0, 10), equalTo(List.of()));
+    }
+
+    @Test
+    @DisplayName("should return requested page of results")
+    void shouldReturnPage() {
+        for (long i = 1; i <= 25; i++) {
+            itemSearchIndex.index(makeItem(i, "Вещь " + i, "Описание", true));
+        }
+
+        assertThat(itemSearchIndex.search("вещь", 10, 10).size(), equalTo(10));
+        assertThat(itemSearchIndex.search("вещь", 10, 10).get(0), equalTo(11L));
+        assertThat(itemSearchIndex.search("вещь", 20, 10).size(), equalTo(5));
+    }
+
+    //запуск: mvn test -Dtest=ItemSearchIndexTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("search time should not grow with catalog size for rare words")
+    void shouldSearchRareWordIndependentOfCatalogSize() {
+        long smallCatalog = measureRareWordSearch(10_000);
+        long largeCatalog = measureRareWordSearch(1_000_000);
+
+        System.out.println("Поиск редкого слова, нс: 10k = " + smallCatalog + ", 1M = " + largeCatalog);
+        assertThat(largeCatalog, lessThan(smallCatalog * 10));
+    }
+
+    private long measureRareWordSearch(int catalogSize) {
+        ItemSearchIndex index = new ItemSearchIndex(mock(ItemRepository.class));
+        String[] words = {"дрель", "пила", "молоток", "отвертка", "стремянка", "палатка", "велосипед", "лодка"};
+        for (int i = 1; i <= catalogSize; i++) {
+            String name = words[i % words.length] + " " + i;
+            String description = i % (catalogSize / 10) == 0 ? "перфоратор" : words[(i / 7) % words.length];
+            index.index(makeItem(i, name, description, true));
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            index.search("перфоратор", 0, 10);
+        }
+        int iterations = 10_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            index.search("перфоратор", 0, 10);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private Item makeItem(long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -11,6 +11,7 @@ import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.ItemNotExistException;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
@@ -32,6 +33,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -280,6 +282,57 @@ public class ItemServiceImplTest {
         assertThrows(IllegalArgumentException.class, () -> itemService.searchItemsWithPagination("ПиЛиТ", user.getId(), -1, -2));
     }
 
+    @Test
+    @DisplayName("should change item etag with item, bookings and comments")
+    @Order(value = 17)
+    void shouldChangeItemEtag() {
+        long itemId = itemService.createItem(makeItemDto("Пила", "Пилит и пилит", true), user.getId()).getId();
+        String ownerEtag = itemService.getItemEtag(itemId, user.getId());
+        String otherEtag = itemService.getItemEtag(itemId, user2.getId());
+        assertThat(ownerEtag, not(equalTo(otherEtag)));
+        assertThat(itemService.getItemEtag(itemId, user.getId()), equalTo(ownerEtag));
+
+        BookingDto bookingDto = bookingService.createBooking(makeBookingDto(itemId, LocalDateTime.now().plusHours(1),
+                LocalDateTime.now().plusDays(1)), user2.getId());
+        String bookedEtag = itemService.getItemEtag(itemId, user.getId());
+        assertThat(bookedEtag, not(equalTo(ownerEtag)));
+        //бронирования видит только владелец
+        assertThat(itemService.getItemEtag(itemId, user2.getId()), equalTo(otherEtag));
+
+        bookingService.updateBooking(bookingDto.getId(), true, user.getId());
+        String approvedEtag = itemService.getItemEtag(itemId, user.getId());
+        assertThat(approvedEtag, not(equalTo(bookedEtag)));
+
+        itemService.updateItem(ItemDto.builder().name("Молоток").build(), itemId, user.getId());
+        assertThat(itemService.getItemEtag(itemId, user.getId()), not(equalTo(approvedEtag)));
+        assertThat(itemService.getItemEtag(itemId, user2.getId()), not(equalTo(otherEtag)));
+        assertThrows(ItemNotExistException.class, () -> itemService.getItemEtag(-1L, user.getId()));
+    }
+
+    @Test
+    @DisplayName("should return free slots around waiting and approved bookings")
+    @Order(value = 18)
+    void shouldGetItemAvailability() {
+        long itemId = itemService.createItem(makeItemDto("Пила", "Пилит и пилит", true), user.getId()).getId();
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(10);
+        assertThat(itemService.getItemAvailability(itemId, user2.getId(), from, to), equalTo(List.of(new FreeSlotDto(from, to))));
+
+        BookingDto first = bookingService.createBooking(makeBookingDto(itemId, from.plusDays(2), from.plusDays(3)), user2.getId());
+        bookingService.createBooking(makeBookingDto(itemId, from.plusDays(5), from.plusDays(6)), user2.getId());
+        bookingService.updateBooking(first.getId(), true, user.getId());
+        assertThat(itemService.getItemAvailability(itemId, user2.getId(), from, to), equalTo(List.of(
+                new FreeSlotDto(from, from.plusDays(2)),
+                new FreeSlotDto(from.plusDays(3), from.plusDays(5)),
+                new FreeSlotDto(from.plusDays(6), to))));
+
+        bookingService.updateBooking(first.getId(), false, user.getId());
+        assertThat(itemService.getItemAvailability(itemId, user2.getId(), from, to), equalTo(List.of(
+                new FreeSlotDto(from, from.plusDays(5)),
+                new FreeSlotDto(from.plusDays(6), to))));
+        assertThrows(ItemNotExistException.class, () -> itemService.getItemAvailability(-1L, user.getId(), from, to));
+    }
+
     private ItemDto makeItemDto(String name, String description, Boolean available) {
         return ItemDto.builder()
                 .name(name)
@@ -0,0 +1,151 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ItemServiceQueryCountTest {
+
+    private final EntityManager em;
+    private final ItemService itemService;
+    private final ItemViewCache itemViewCache;
+
+    private User owner;
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        owner = User.builder()
+                .name("Owner")
+                .email("owner@mail.ru")
+                .build();
+        em.persist(owner);
+        booker = User.builder()
+                .name("Booker")
+                .email("booker@mail.ru")
+                .build();
+        em.persist(booker);
+
+        for (int i = 0; i < 10; i++) {
+            Item item = Item.builder()
+                    .name("Вещь " + i)
+                    .description("Описание " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build();
+            em.persist(item);
+            em.persist(makeBooking(item, booker, LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2), Status.APPROVED));
+            em.persist(makeBooking(item, booker, LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(3), Status.WAITING));
+            em.persist(Comment.builder()
+                    .text("Комментарий " + i)
+                    .item(item)
+                    .author(booker)
+                    .created(LocalDateTime.now())
+                    .build());
+        }
+        em.flush();
+    }
+
+    @Test
+    @DisplayName("should load owner items page with fixed number of statements")
+    void shouldLoadOwnerItemsWithFixedNumberOfStatements() {
+        long smallPageStatements = countStatements(2);
+        long fullPageStatements = countStatements(10);
+
+        assertThat(fullPageStatements, equalTo(smallPageStatements));
+    }
+
+    @Test
+    @DisplayName("should fill bookings and comments for every item of the page")
+    void shouldFillBookingsAndCommentsForPage() {
+        List<ItemDto> items = itemService.getAllItemWithPagination(owner.getId(), 0, 10);
+
+        assertThat(items.size(), equalTo(10));
+        for (ItemDto item : items) {
+            assertThat(item.getLastBooking(), notNullValue());
+            assertThat(item.getNextBooking(), notNullValue());
+            assertThat(item.getLastBooking().getStatus(), equalTo(Status.APPROVED));
+            assertThat(item.getComments().size(), equalTo(1));
+        }
+    }
+
+    @Test
+    @DisplayName("should not depend on bookings table size for get item by id")
+    void shouldGetItemByIdIndependentOfBookingsCount() {
+        Item item = em.createQuery("select i from Item i where i.owner.id = :ownerId order by i.id", Item.class)
+                .setParameter("ownerId", owner.getId())
+                .setMaxResults(1)
+                .getSingleResult();
+
+        em.clear();
+        statistics.clear();
+        itemService.getItemById(item.getId(), owner.getId());
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long entitiesBefore = statistics.getEntityLoadCount();
+
+        Item managedItem = em.find(Item.class, item.getId());
+        User managedBooker = em.find(User.class, booker.getId());
+        for (int i = 0; i < 500; i++) {
+            em.persist(makeBooking(managedItem, managedBooker, LocalDateTime.now().minusDays(i + 10),
+                    LocalDateTime.now().minusDays(i + 9), Status.APPROVED));
+        }
+        em.flush();
+        //бронирования добавлены в обход сервиса, поэтому карточку из кэша сбрасываем вручную
+        itemViewCache.evict(item.getId());
+
+        em.clear();
+        statistics.clear();
+        ItemDto itemDto = itemService.getItemById(item.getId(), owner.getId());
+
+        assertThat(itemDto.getLastBooking(), notNullValue());
+        assertThat(statistics.getPrepareStatementCount(), equalTo(statementsBefore));
+        assertThat(statistics.getEntityLoadCount(), equalTo(entitiesBefore));
+    }
+
+    private long countStatements(int size) {
+        em.clear();
+        statistics.clear();
+        List<ItemDto> items = itemService.getAllItemWithPagination(owner.getId(), 0, size);
+        assertThat(items.size(), equalTo(size));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Booking makeBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, Status status) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(status)
+                .build();
+    }
+}
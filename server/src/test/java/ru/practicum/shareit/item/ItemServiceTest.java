@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,19 +12,24 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ItemNotExistException;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.item.cache.ItemViewCache;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoForItemRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -60,7 +66,10 @@ public class ItemServiceTest {
         bookingRepository = mock(BookingRepository.class);
         itemRequestRepository = mock(ItemRequestRepository.class);
         commentRepository = mock(CommentRepository.class);
-        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository,
+                new ItemSearchIndex(itemRepository), new ItemViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)),
+                new UserExistenceCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)),
+                new ItemAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)));
 
         user = User.builder()
                 .id(1L)
@@ -105,7 +114,7 @@ public class ItemServiceTest {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
 
-        PageImpl<Item> itemPage = new PageImpl<>(Collections.singletonList(item));
+        List<ItemDto> itemPage = Collections.singletonList(itemDto);
         Pageable page = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
 
         when(itemRepository.findAllByOwnerId(1L, page))
@@ -117,8 +126,8 @@ public class ItemServiceTest {
 
         List<ItemDto> receivedItemDto = itemService.getAllItemWithPagination(1, page.getPageNumber(), page.getPageSize());
 
-        when(bookingRepository.findAll())
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findLastAndNextBookingsByItemIds(anyList(), any()))
+                .thenReturn(List.of());
 
         bookingRepository.save(booking);
         List<ItemDto> items = itemService.getAllItemWithPagination(user.getId(), 0, 10);
@@ -168,11 +177,13 @@ public class ItemServiceTest {
     void shouldFindAllItem() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
 
         List<Item> items = new ArrayList<>();
         items.add(item);
 
-        when(itemRepository.findAll())
+        when(itemRepository.findAllByOwnerIdOrderBy(1))
                 .thenReturn(items);
 
         when(itemRepository.save(any()))
@@ -188,7 +199,7 @@ public class ItemServiceTest {
         assertThat(receivedItemDto.get(0).getAvailable(), equalTo(itemDto.getAvailable()));
 
         verify(itemRepository, Mockito.times(1))
-                .findAll();
+                .findAllByOwnerIdOrderBy(1);
         verify(itemRepository, Mockito.times(1))
                 .save(item);
     }
@@ -198,8 +209,10 @@ public class ItemServiceTest {
     void shouldFindAllItemWithPagination() {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
 
-        PageImpl<Item> itemPage = new PageImpl<>(Collections.singletonList(item));
+        List<ItemDto> itemPage = Collections.singletonList(itemDto);
         Pageable page = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
 
         when(itemRepository.findAllByOwnerId(1L, page))
@@ -230,17 +243,16 @@ public class ItemServiceTest {
         when(userRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(user));
 
-        PageImpl<Item> itemPage = new PageImpl<>(Collections.singletonList(item));
         Pageable page = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
 
-        when(itemRepository.searchItemsPageable(anyString(), any(), anyLong()))
-                .thenReturn(itemPage);
+        when(itemRepository.findAllByIdIn(List.of(item.getId())))
+                .thenReturn(List.of(item));
 
         when(itemRepository.save(any()))
                 .thenReturn(item);
         itemService.createItem(itemDto, 1);
 
-        List<ItemDto> receivedItemDto = itemService.searchItemsWithPagination("ВеЩь 1", page.getPageNumber(), page.getPageSize(), 1);
+        List<ItemDto> receivedItemDto = itemService.searchItemsWithPagination("ВеЩь 1", 1, page.getPageNumber(), page.getPageSize());
 
         assertThat(receivedItemDto.size(), equalTo(1));
         assertThat(receivedItemDto.get(0).getId(), equalTo(itemDto.getId()));
@@ -259,8 +271,8 @@ public class ItemServiceTest {
         itemService.createItem(itemDto, 1L);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
-        when(bookingRepository.findAll())
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findLastAndNextBookingsByItemIds(eq(List.of(1L)), any()))
+                .thenReturn(List.of());
 
         ItemDto receivedItemDto = itemService.getItemById(1, 1);
 
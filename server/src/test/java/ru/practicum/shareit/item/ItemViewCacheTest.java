@@ -0,0 +1,291 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.booking.dto.BookingDtoIn;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.cache.CachedItemView;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.dto.CommentDtoIn;
+import ru.practicum.shareit.item.comment.service.CommentService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ItemViewCacheTest {
+
+    private final EntityManager em;
+    private final ItemService itemService;
+    private final UserService userService;
+    private final BookingService bookingService;
+    private final CommentService commentService;
+    private final MeterRegistry meterRegistry;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto itemDto;
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(UserDto.builder()
+                .name("Owner")
+                .email("cache-owner@mail.ru")
+                .build());
+        booker = userService.createUser(UserDto.builder()
+                .name("Booker")
+                .email("cache-booker@mail.ru")
+                .build());
+        itemDto = itemService.createItem(ItemDto.builder()
+                .name("Дрель")
+                .description("Сверлит")
+                .available(true)
+                .build(), owner.getId());
+    }
+
+    @Test
+    @DisplayName("should serve repeated item view from cache")
+    void shouldServeRepeatedItemViewFromCache() {
+        double hitsBefore = hits();
+        itemService.getItemById(itemDto.getId(), owner.getId());
+
+        statistics.clear();
+        ItemDto ownerView = itemService.getItemById(itemDto.getId(), owner.getId());
+        ItemDto bookerView = itemService.getItemById(itemDto.getId(), booker.getId());
+
+        assertThat(ownerView.getName(), equalTo("Дрель"));
+        assertThat(bookerView.getName(), equalTo("Дрель"));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+        assertThat(hits() - hitsBefore, equalTo(2.0));
+    }
+
+    @Test
+    @DisplayName("should serve item etag from cache")
+    void shouldServeItemEtagFromCache() {
+        itemService.getItemById(itemDto.getId(), owner.getId());
+
+        statistics.clear();
+        String ownerEtag = itemService.getItemEtag(itemDto.getId(), owner.getId());
+        String bookerEtag = itemService.getItemEtag(itemDto.getId(), booker.getId());
+
+        assertThat(ownerEtag, not(equalTo(bookerEtag)));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+
+        itemService.updateItem(ItemDto.builder().name("Перфоратор").build(), itemDto.getId(), owner.getId());
+        assertThat(itemService.getItemEtag(itemDto.getId(), booker.getId()), not(equalTo(bookerEtag)));
+    }
+
+    @Test
+    @DisplayName("should evict item view on item update")
+    void shouldEvictItemViewOnUpdate() {
+        itemService.getItemById(itemDto.getId(), owner.getId());
+
+        itemService.updateItem(ItemDto.builder().name("Перфоратор").build(), itemDto.getId(), owner.getId());
+
+        assertThat(itemService.getItemById(itemDto.getId(), booker.getId()).getName(), equalTo("Перфоратор"));
+    }
+
+    @Test
+    @DisplayName("should evict item view on new comment")
+    void shouldEvictItemViewOnComment() {
+        em.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(em.find(Item.class, itemDto.getId()))
+                .booker(em.find(User.class, booker.getId()))
+                .status(Status.APPROVED)
+                .build());
+        em.flush();
+        assertThat(itemService.getItemById(itemDto.getId(), booker.getId()).getComments().size(), equalTo(0));
+
+        CommentDtoIn commentDtoIn = new CommentDtoIn();
+        commentDtoIn.setText("Отличная дрель");
+        commentService.createComment(itemDto.getId(), commentDtoIn, booker.getId());
+
+        assertThat(itemService.getItemById(itemDto.getId(), booker.getId()).getComments().size(), equalTo(1));
+    }
+
+    @Test
+    @DisplayName("should evict item view on comment author rename")
+    void shouldEvictItemViewOnAuthorRename() {
+        em.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(em.find(Item.class, itemDto.getId()))
+                .booker(em.find(User.class, booker.getId()))
+                .status(Status.APPROVED)
+                .build());
+        em.flush();
+        CommentDtoIn commentDtoIn = new CommentDtoIn();
+        commentDtoIn.setText("Отличная дрель");
+        commentService.createComment(itemDto.getId(), commentDtoIn, booker.getId());
+        assertThat(itemService.getItemById(itemDto.getId(), owner.getId()).getComments().get(0).getAuthorName(),
+                equalTo("Booker"));
+
+        userService.updateUser(UserDto.builder().name("Renamed").build(), booker.getId());
+        em.flush();
+
+        assertThat(itemService.getItemById(itemDto.getId(), owner.getId()).getComments().get(0).getAuthorName(),
+                equalTo("Renamed"));
+    }
+
+    @Test
+    @DisplayName("should evict item view on booking creation and approval")
+    void shouldEvictItemViewOnBookingChanges() {
+        em.persist(Booking.builder()
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(em.find(Item.class, itemDto.getId()))
+                .booker(em.find(User.class, booker.getId()))
+                .status(Status.APPROVED)
+                .build());
+        em.flush();
+        assertThat(itemService.getItemById(itemDto.getId(), owner.getId()).getNextBooking(), nullValue());
+
+        BookingDto bookingDto = bookingService.createBooking(BookingDtoIn.builder()
+                .itemId(itemDto.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build(), booker.getId());
+        ItemDto ownerView = itemService.getItemById(itemDto.getId(), owner.getId());
+        assertThat(ownerView.getNextBooking().getId(), equalTo(bookingDto.getId()));
+        assertThat(ownerView.getNextBooking().getStatus(), equalTo(Status.WAITING));
+        assertThat(itemService.getItemById(itemDto.getId(), booker.getId()).getNextBooking(), nullValue());
+
+        bookingService.updateBooking(bookingDto.getId(), true, owner.getId());
+        assertThat(itemService.getItemById(itemDto.getId(), owner.getId()).getNextBooking().getStatus(), equalTo(Status.APPROVED));
+    }
+
+    @Test
+    @DisplayName("should expire item view when next booking starts")
+    void shouldExpireItemViewWhenNextBookingStarts() throws InterruptedException {
+        ItemViewCache cache = new ItemViewCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+        BookingDtoForItem nextBooking = new BookingDtoForItem(1L, LocalDateTime.now().plusNanos(50_000_000),
+                LocalDateTime.now().plusDays(1), 2L, Status.APPROVED);
+        ItemDto cachedItem = ItemDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .comments(new ArrayList<>())
+                .build();
+
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, nextBooking);
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, nextBooking);
+        });
+        assertThat(loads.get(), equalTo(1));
+
+        Thread.sleep(100);
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    @DisplayName("should not keep item view loaded during eviction")
+    void shouldNotKeepItemViewLoadedDuringEviction() {
+        ItemViewCache cache = new ItemViewCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+        ItemDto cachedItem = ItemDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .comments(new ArrayList<>())
+                .build();
+
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            cache.evict(id);
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    @DisplayName("should keep item view loaded during eviction of another item")
+    void shouldKeepItemViewLoadedDuringOtherEviction() {
+        ItemViewCache cache = new ItemViewCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5));
+        AtomicInteger loads = new AtomicInteger();
+        ItemDto cachedItem = ItemDto.builder()
+                .id(1L)
+                .name("Дрель")
+                .comments(new ArrayList<>())
+                .build();
+
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            cache.evict(2L);
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return new CachedItemView(cachedItem, 1L, null, null);
+        });
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    @DisplayName("should publish cache metrics")
+    void shouldPublishCacheMetrics() {
+        itemService.getItemById(itemDto.getId(), owner.getId());
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", ItemViewCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter(), notNullValue());
+        assertThat(meterRegistry.find("cache.gets").tag("cache", ItemViewCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count(), greaterThan(0.0));
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", ItemViewCache.CACHE_NAME)
+                .functionCounter(), notNullValue());
+    }
+
+    private double hits() {
+        return meterRegistry.find("cache.gets").tag("cache", ItemViewCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+    }
+}
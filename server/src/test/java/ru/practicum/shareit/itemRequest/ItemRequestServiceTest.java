@@ -1,13 +1,14 @@
 package ru.practicum.shareit.itemRequest;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.ItemRequestNotExist;
-import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoForItemRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -16,9 +17,11 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +32,8 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ItemRequestServiceTest {
@@ -36,7 +41,6 @@ public class ItemRequestServiceTest {
     private ItemRequestRepository itemRequestRepository;
     private ItemRepository itemRepository;
     private UserRepository userRepository;
-    private CommentRepository commentRepository;
 
     private ItemRequestService itemRequestService;
 
@@ -54,9 +58,9 @@ public class ItemRequestServiceTest {
     void beforeEach() {
         itemRepository = mock(ItemRepository.class);
         userRepository = mock(UserRepository.class);
-        commentRepository = mock(CommentRepository.class);
         itemRequestRepository = mock(ItemRequestRepository.class);
-        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository, commentRepository);
+        itemRequestService = new ItemRequestServiceImpl(itemRequestRepository, userRepository, itemRepository,
+                new UserExistenceCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)));
 
         user = User.builder()
                 .id(1L)
@@ -157,6 +161,30 @@ public class ItemRequestServiceTest {
         assertThat(receivedItemRequest.getCreated(), equalTo(itemRequest.getCreated()));
     }
 
+    @Test
+    @DisplayName("should attach items only to their itemRequest")
+    void shouldAttachItemsToRequest() {
+        ItemRequest otherRequest = ItemRequest.builder()
+                .id(2L)
+                .description("Другой запрос")
+                .created(LocalDateTime.now())
+                .requestor(user)
+                .build();
+        when(userRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(user));
+        when(itemRequestRepository.findByRequestor_Id(1, Sort.by(Sort.Direction.DESC, "created")))
+                .thenReturn(List.of(itemRequest, otherRequest));
+        when(itemRepository.findAllForRequests(List.of(1L, 2L)))
+                .thenReturn(List.of(new ItemDtoForItemRequest(1L, "Вещь 1", "Умеет что-то", true, 1L)));
+
+        List<ItemRequestDto> receivedItemRequest = itemRequestService.getAllRequestsForOwner(1);
+
+        assertThat(receivedItemRequest.get(0).getItems().size(), equalTo(1));
+        assertThat(receivedItemRequest.get(0).getItems().get(0).getId(), equalTo(item.getId()));
+        assertThat(receivedItemRequest.get(1).getItems().size(), equalTo(0));
+        verify(itemRepository, never()).findAll();
+    }
+
     @Test
     @DisplayName("should throw for itemRequest by Id")
     void shouldThrowItemRequestById() {
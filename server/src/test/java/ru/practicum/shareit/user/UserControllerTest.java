@@ -8,10 +8,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.UserNotExistObject;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
@@ -143,6 +145,20 @@ public class UserControllerTest {
                 .getUserById(anyLong());
     }
 
+    @Test
+    @DisplayName("should return conflict when user changed concurrently")
+    void shouldReturnConflictForConcurrentUpdate() throws Exception {
+        when(service.updateUser(any(), anyLong()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mvc.perform(patch("/users/1")
+                        .content(mapper.writeValueAsString(userDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("should delete users")
     void shouldDeleteUser() throws Exception {
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+//без @Transactional: id попадает в кэш только после коммита
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class UserExistenceCacheTest {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final BookingService bookingService;
+    private final UserExistenceCache userExistenceCache;
+
+    private final List<Long> createdUserIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void afterEach() {
+        for (Long id : createdUserIds) {
+            if (userRepository.existsById(id)) {
+                userService.deleteUserById(id);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("should skip user lookup for created user")
+    void shouldSkipUserLookupForCreatedUser() {
+        UserDto user = createUser("exists-1@mail.ru");
+
+        statistics.clear();
+        bookingService.getAllBookingsByUserIdAndState(user.getId(), State.ALL, 0, 10);
+        long warmStatements = statistics.getPrepareStatementCount();
+
+        userExistenceCache.evict(user.getId());
+        //с id из последовательности созданный юзер сразу попадает и в кэш второго уровня
+        entityManagerFactory.getCache().evict(User.class, user.getId());
+        statistics.clear();
+        bookingService.getAllBookingsByUserIdAndState(user.getId(), State.ALL, 0, 10);
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        assertThat(warmStatements, equalTo(coldStatements - 1));
+    }
+
+    @Test
+    @DisplayName("should forget deleted user")
+    void shouldForgetDeletedUser() {
+        UserDto user = createUser("exists-2@mail.ru");
+        bookingService.getAllBookingsByUserIdAndState(user.getId(), State.ALL, 0, 10);
+
+        userService.deleteUserById(user.getId());
+
+        assertThrows(UserNotExistObject.class,
+                () -> bookingService.getAllBookingsByUserIdAndState(user.getId(), State.ALL, 0, 10));
+    }
+
+    @Test
+    @DisplayName("should not remember user from rolled back transaction")
+    void shouldNotRememberRolledBackUser() {
+        UserDto user = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return userService.createUser(UserDto.builder()
+                    .name("Rollback")
+                    .email("exists-3@mail.ru")
+                    .build());
+        });
+
+        assertThrows(UserNotExistObject.class,
+                () -> bookingService.getAllBookingsByUserIdAndState(user.getId(), State.ALL, 0, 10));
+    }
+
+    @Test
+    @DisplayName("should not remember user deleted during check")
+    void shouldNotRememberUserDeletedDuringCheck() {
+        UserRepository repository = mock(UserRepository.class);
+        UserExistenceCache cache = new UserExistenceCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+        //проверка прочитала юзера, а удаление сбросило кэш раньше, чем она его запомнила
+        when(repository.findById(1L))
+                .thenAnswer(invocation -> {
+                    cache.evict(1L);
+                    return Optional.of(new User());
+                })
+                .thenReturn(Optional.empty());
+
+        cache.requireExists(1L, () -> new UserNotExistObject("user not exist"));
+
+        assertThrows(UserNotExistObject.class, () -> cache.requireExists(1L, () -> new UserNotExistObject("user not exist")));
+    }
+
+    @Test
+    @DisplayName("should check remembered user again after ttl")
+    void shouldExpireRememberedUser() throws InterruptedException {
+        UserRepository repository = mock(UserRepository.class);
+        UserExistenceCache cache = new UserExistenceCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMillis(50));
+        when(repository.findById(1L)).thenReturn(Optional.of(new User()));
+
+        cache.requireExists(1L, () -> new UserNotExistObject("user not exist"));
+        cache.requireExists(1L, () -> new UserNotExistObject("user not exist"));
+        verify(repository, times(1)).findById(1L);
+
+        Thread.sleep(100);
+        cache.requireExists(1L, () -> new UserNotExistObject("user not exist"));
+        verify(repository, times(2)).findById(1L);
+    }
+
+    //запуск: mvn test -Dtest=UserExistenceCacheTest -Dbenchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("cached user check should lower request latency")
+    void shouldLowerLatencyWithCachedUser() {
+        UserDto user = createUser("exists-4@mail.ru");
+
+        long[] cold = measure(user.getId(), true);
+        long[] warm = measure(user.getId(), false);
+
+        System.out.println("Список бронирований, мкс: без кэша p50 = " + cold[0] + ", p99 = " + cold[1]
+                + "; с кэшем p50 = " + warm[0] + ", p99 = " + warm[1]);
+        assertThat(warm[0], lessThan(cold[0]));
+    }
+
+    private long[] measure(long userId, boolean evict) {
+        int iterations = 5000;
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations + 1000; i++) {
+            if (evict) {
+                userExistenceCache.evict(userId);
+            }
+            long begin = System.nanoTime();
+            bookingService.getAllBookingsByUserIdAndState(userId, State.ALL, 0, 10);
+            long elapsed = System.nanoTime() - begin;
+            if (i >= 1000) {
+                times[i - 1000] = elapsed;
+            }
+        }
+        Arrays.sort(times);
+        return new long[]{times[iterations / 2] / 1000, times[iterations * 99 / 100] / 1000};
+    }
+
+    private UserDto createUser(String email) {
+        UserDto user = userService.createUser(UserDto.builder()
+                .name("Exists")
+                .email(email)
+                .build());
+        createdUserIds.add(user.getId());
+        return user;
+    }
+}
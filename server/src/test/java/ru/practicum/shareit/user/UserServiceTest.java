@@ -1,16 +1,21 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import ru.practicum.shareit.exception.UserNotExistObject;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -33,7 +38,8 @@ public class UserServiceTest {
     @BeforeEach
     public void beforeEach() {
         userRepository = mock(UserRepository.class);
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, new UserExistenceCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10)),
+                mock(CommentRepository.class), new ItemViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)));
         userDto = UserDto.builder()
                 .id(1L)
                 .name("Ваня")
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.item.cache.ItemViewCache;
+import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.user.cache.UserExistenceCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.oneOf;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+//без @Transactional: каждое обновление идет в своей транзакции, как два параллельных PATCH
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class UserUpdateConcurrencyTest {
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
+    private final CommentRepository commentRepository;
+    private final ItemViewCache itemViewCache;
+
+    private UserDto user;
+
+    @BeforeEach
+    void beforeEach() {
+        user = userService.createUser(UserDto.builder()
+                .name("Ваня")
+                .email("concurrent-user@mail.ru")
+                .build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        userService.deleteUserById(user.getId());
+    }
+
+    @Test
+    @DisplayName("should reject second of two concurrent updates read at the same version")
+    void shouldRejectLostUpdate() {
+        //сервис на настоящем репозитории, но оба потока прочитают юзера до того, как любой из них сохранит изменения
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        UserRepository pausingRepository = mock(UserRepository.class, delegatesTo(userRepository));
+        doAnswer(invocation -> {
+            Object found = userRepository.findById(invocation.getArgument(0));
+            bothRead.await();
+            return found;
+        }).when(pausingRepository).findById(anyLong());
+        UserService racingService = new UserServiceImpl(pausingRepository, userExistenceCache, commentRepository,
+                itemViewCache);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> update(racingService, "Петя"), executor);
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> update(racingService, "Коля"), executor);
+
+            assertThat(List.of(first.join(), second.join()), containsInAnyOrder("updated", "conflict"));
+        } finally {
+            executor.shutdown();
+        }
+        User saved = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(saved.getVersion(), equalTo(1L));
+        assertThat(saved.getName(), oneOf("Петя", "Коля"));
+    }
+
+    private String update(UserService service, String name) {
+        try {
+            service.updateUser(UserDto.builder().name(name).build(), user.getId());
+            return "updated";
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return "conflict";
+        }
+    }
+}